@@ -13,21 +13,26 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import ru.itmo.cs.repository.UserRepository;
 import ru.itmo.cs.util.MD5PasswordEncoder;
+import ru.itmo.cs.util.cache.UserDetailsCacheHandler;
+import ru.itmo.cs.util.hashing.OffloadedPasswordEncoder;
+import ru.itmo.cs.util.hashing.PasswordHashingHandler;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final UserDetailsCacheHandler userDetailsCacheHandler;
+    private final PasswordHashingHandler passwordHashingHandler;
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
+        return username -> userDetailsCacheHandler.getUser(username, name -> userRepository.findByUsername(name)
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + name)));
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingHandler);
     }
 
     @Bean
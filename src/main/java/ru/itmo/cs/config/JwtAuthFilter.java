@@ -1,5 +1,6 @@
 package ru.itmo.cs.config;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,16 +8,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ru.itmo.cs.entity.enums.UserRole;
 import ru.itmo.cs.service.JwtService;
+import ru.itmo.cs.util.cache.TokenVersionHandler;
+
+import java.util.List;
 
 
 @Component
@@ -25,6 +33,11 @@ import ru.itmo.cs.service.JwtService;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionHandler tokenVersionHandler;
+
+    // identity and authorities come from the verified claims, the users table is not read per request
+    @Value("${spring.security.jwt.claims-only:false}")
+    private boolean claimsOnly;
 
     @Override
     @SneakyThrows
@@ -45,17 +58,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (username != null && authentication == null) {
+            if (username != null && authentication == null && claimsOnly) {
+                UserDetails userDetails = fromClaims(jwtService.extractAllClaims(jwt));
+                if (userDetails != null) {
+                    authenticate(userDetails, request);
+                }
+            } else if (username != null && authentication == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
                 if (jwtService.validateToken(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(userDetails,
-                                    null,
-                                    userDetails.getAuthorities());
-
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    authenticate(userDetails, request);
                 }
             }
 
@@ -65,5 +77,26 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
         }
     }
-}
 
+    private void authenticate(UserDetails userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(userDetails,
+                        null,
+                        userDetails.getAuthorities());
+
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    // tokens issued before the user's last role or password change carry an outdated version
+    private UserDetails fromClaims(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        Integer version = claims.get(JwtService.TOKEN_VERSION_CLAIM, Integer.class);
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        if (role == null || !tokenVersionHandler.isCurrent(userId, version)) {
+            return null;
+        }
+        return new User(claims.getSubject(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_" + UserRole.valueOf(role).name())));
+    }
+}
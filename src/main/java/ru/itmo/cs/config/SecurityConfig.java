@@ -35,6 +35,7 @@ public class SecurityConfig {
                             "GET",
                             "POST",
                             "PUT",
+                            "PATCH",
                             "DELETE",
                             "OPTIONS"
                     ));
@@ -51,7 +52,9 @@ public class SecurityConfig {
                         .hasAnyRole("USER", "ADMIN")
                         .requestMatchers("/api/auth/approve-admin",
                                 "/api/auth/reject-admin",
-                                "/api/auth/admin-requests")
+                                "/api/auth/admin-requests",
+                                "/api/auth/password-hashing/stats",
+                                "/api/cache/stats")
                         .hasRole("ADMIN")
                         .requestMatchers("/api/**")
                         .hasAnyRole("USER", "ADMIN")
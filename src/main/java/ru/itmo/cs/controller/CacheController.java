@@ -0,0 +1,29 @@
+package ru.itmo.cs.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itmo.cs.dto.CacheStatsDTO;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.cache.UserDetailsCacheHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final DtoCacheHandler dtoCacheHandler;
+    private final UserDetailsCacheHandler userDetailsCacheHandler;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>(dtoCacheHandler.getStats());
+        // every user cache hit is a findByUsername query saved on an authenticated request
+        stats.add(userDetailsCacheHandler.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
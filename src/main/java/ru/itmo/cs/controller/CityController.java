@@ -1,17 +1,37 @@
 package ru.itmo.cs.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.cs.dto.CsvImportReportDTO;
+import ru.itmo.cs.dto.city.CityBulkUpdateDTO;
 import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.city.CityDistanceDTO;
+import ru.itmo.cs.dto.city.CityFilterCriteria;
 import ru.itmo.cs.dto.PaginationResponseDTO;
 import ru.itmo.cs.entity.enums.Climate;
 import ru.itmo.cs.entity.enums.Government;
 import ru.itmo.cs.entity.enums.StandardOfLiving;
+import ru.itmo.cs.service.CityBulkService;
+import ru.itmo.cs.service.CityImportService;
+import ru.itmo.cs.service.CityPurgeService;
 import ru.itmo.cs.service.CityService;
+import ru.itmo.cs.service.CsvImportService;
+import ru.itmo.cs.util.csv.CsvImportType;
+import ru.itmo.cs.util.groupcommit.CityGroupCommitHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.CursorPage;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/cities")
@@ -19,6 +39,11 @@ import ru.itmo.cs.service.CityService;
 public class CityController {
 
     private final CityService cityService;
+    private final CityBulkService cityBulkService;
+    private final CityImportService cityImportService;
+    private final CityPurgeService cityPurgeService;
+    private final CsvImportService csvImportService;
+    private final CityGroupCommitHandler cityGroupCommitHandler;
 
     @GetMapping
     public ResponseEntity<PaginationResponseDTO<CityDTO>> getAllCities(
@@ -30,17 +55,21 @@ public class CityController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "8") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor) {
+
+        if (keyset || cursor != null) {
+            CursorPage<CityDTO> citiesWindow = cityService.scrollCities(
+                    name, climate, government, standardOfLiving, governorName, cursor, size, sortBy, sortDir);
+            return new ResponseEntity<>(new PaginationResponseDTO<>(citiesWindow), HttpStatus.OK);
+        }
 
-        Page<CityDTO> citiesPage = cityService.getAllCities(
-                name, climate, government, standardOfLiving, governorName, page, size, sortBy, sortDir);
+        Slice<CityDTO> citiesPage = cityService.getAllCities(
+                name, climate, government, standardOfLiving, governorName, page, size, sortBy, sortDir, count);
 
-        PaginationResponseDTO<CityDTO> response = new PaginationResponseDTO<>(
-                citiesPage.getContent(),
-                citiesPage.getNumber(),
-                citiesPage.getTotalElements(),
-                citiesPage.getTotalPages()
-        );
+        PaginationResponseDTO<CityDTO> response = new PaginationResponseDTO<>(citiesPage);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -52,7 +81,7 @@ public class CityController {
 
     @PostMapping
     public ResponseEntity<CityDTO> createCity(@RequestBody @Valid CityDTO cityDTO) {
-        CityDTO createdCity = cityService.createCity(cityDTO);
+        CityDTO createdCity = cityGroupCommitHandler.createCity(cityDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCity);
     }
 
@@ -62,12 +91,54 @@ public class CityController {
         return ResponseEntity.ok(updatedCity);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<CityDTO> patchCity(@PathVariable Long id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(cityService.patchCity(id, patch));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCity(@PathVariable Long id) {
         cityService.deleteCity(id);
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping("/{id}/purge")
+    public ResponseEntity<Void> purgeCity(@PathVariable Long id) {
+        cityPurgeService.purgeCity(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public void deleteCities(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Climate climate,
+            @RequestParam(required = false) Government government,
+            @RequestParam(required = false) StandardOfLiving standardOfLiving,
+            @RequestParam(required = false) String governorName,
+            HttpServletResponse response) throws IOException {
+        CityFilterCriteria criteria = new CityFilterCriteria(name, climate, government, standardOfLiving, governorName);
+        // rejected before the progress stream starts, while an error response can still be sent
+        cityBulkService.requireFilter(criteria);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        cityBulkService.deleteCities(criteria, response.getOutputStream());
+    }
+
+    @PatchMapping
+    public void updateCities(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Climate climate,
+            @RequestParam(required = false) Government government,
+            @RequestParam(required = false) StandardOfLiving standardOfLiving,
+            @RequestParam(required = false) String governorName,
+            @RequestBody CityBulkUpdateDTO patch,
+            HttpServletResponse response) throws IOException {
+        CityFilterCriteria criteria = new CityFilterCriteria(name, climate, government, standardOfLiving, governorName);
+        cityBulkService.requireFilter(criteria);
+        cityBulkService.requirePatch(patch);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        cityBulkService.updateCities(criteria, patch, response.getOutputStream());
+    }
+
     @DeleteMapping("/government")
     public ResponseEntity<Void> deleteCityByGovernment(@RequestParam Government government) {
         cityService.deleteCityByGovernment(government);
@@ -98,7 +169,38 @@ public class CityController {
         double distance = cityService.calculateRouteToCityWithLargestAreaFromUser(userX, userY, userZ);
         return ResponseEntity.ok(distance);
     }
-}
 
+    @GetMapping("/nearest")
+    public ResponseEntity<List<CityDistanceDTO>> getNearestCities(
+            @RequestParam double x, @RequestParam double y,
+            @RequestParam(defaultValue = "0") double z,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Climate climate,
+            @RequestParam(required = false) Government government) {
+        return ResponseEntity.ok(cityService.findNearestCities(x, y, z, k, climate, government));
+    }
 
+    @GetMapping("/within-radius")
+    public ResponseEntity<List<CityDistanceDTO>> getCitiesWithinRadius(
+            @RequestParam double x, @RequestParam double y,
+            @RequestParam(defaultValue = "0") double z,
+            @RequestParam double radius,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Climate climate,
+            @RequestParam(required = false) Government government) {
+        return ResponseEntity.ok(cityService.findCitiesWithinRadius(x, y, z, radius, limit, climate, government));
+    }
 
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importCities(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        cityImportService.importCities(request.getInputStream(), response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CsvImportReportDTO> importCitiesCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(csvImportService.importCsv(CsvImportType.CITIES, file));
+    }
+}
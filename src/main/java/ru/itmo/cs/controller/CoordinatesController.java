@@ -2,35 +2,50 @@ package ru.itmo.cs.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.cs.dto.CsvImportReportDTO;
 import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
 import ru.itmo.cs.dto.PaginationResponseDTO;
+import ru.itmo.cs.service.CsvImportService;
 import ru.itmo.cs.service.CoordinatesService;
+import ru.itmo.cs.util.csv.CsvImportType;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.CursorPage;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/coordinates")
 @RequiredArgsConstructor
 public class CoordinatesController {
     private final CoordinatesService coordinatesService;
+    private final CsvImportService csvImportService;
 
     @GetMapping
     public ResponseEntity<PaginationResponseDTO<CoordinatesDTO>> getAllCoordinates(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor) {
+
+        if (keyset || cursor != null) {
+            CursorPage<CoordinatesDTO> coordinatesWindow =
+                    coordinatesService.scrollCoordinates(cursor, size, sortBy, sortDir);
+            return new ResponseEntity<>(new PaginationResponseDTO<>(coordinatesWindow), HttpStatus.OK);
+        }
 
-        Page<CoordinatesDTO> coordinatesPage = coordinatesService.getAllCoordinates(page, size, sortBy, sortDir);
+        Slice<CoordinatesDTO> coordinatesPage =
+                coordinatesService.getAllCoordinates(page, size, sortBy, sortDir, count);
 
-        PaginationResponseDTO<CoordinatesDTO> response = new PaginationResponseDTO<>(
-                coordinatesPage.getContent(),
-                coordinatesPage.getNumber(),
-                coordinatesPage.getTotalElements(),
-                coordinatesPage.getTotalPages()
-        );
+        PaginationResponseDTO<CoordinatesDTO> response = new PaginationResponseDTO<>(coordinatesPage);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -56,4 +71,9 @@ public class CoordinatesController {
         coordinatesService.deleteCoordinates(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CsvImportReportDTO> importCoordinatesCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(csvImportService.importCsv(CsvImportType.COORDINATES, file));
+    }
 }
@@ -2,19 +2,29 @@ package ru.itmo.cs.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.cs.dto.CsvImportReportDTO;
 import ru.itmo.cs.dto.human.HumanDTO;
 import ru.itmo.cs.dto.PaginationResponseDTO;
+import ru.itmo.cs.service.CsvImportService;
 import ru.itmo.cs.service.HumanService;
+import ru.itmo.cs.util.csv.CsvImportType;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.CursorPage;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/humans")
 @RequiredArgsConstructor
 public class HumanController {
     private final HumanService humanService;
+    private final CsvImportService csvImportService;
 
     @GetMapping
     public ResponseEntity<PaginationResponseDTO<HumanDTO>> getAllHumans(
@@ -22,16 +32,19 @@ public class HumanController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "8") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "false") boolean keyset,
+            @RequestParam(required = false) String cursor) {
+
+        if (keyset || cursor != null) {
+            CursorPage<HumanDTO> humansWindow = humanService.scrollHumans(name, cursor, size, sortBy, sortDir);
+            return new ResponseEntity<>(new PaginationResponseDTO<>(humansWindow), HttpStatus.OK);
+        }
 
-        Page<HumanDTO> humansPage = humanService.getAllHumans(name, page, size, sortBy, sortDir);
+        Slice<HumanDTO> humansPage = humanService.getAllHumans(name, page, size, sortBy, sortDir, count);
 
-        PaginationResponseDTO<HumanDTO> response = new PaginationResponseDTO<>(
-                humansPage.getContent(),
-                humansPage.getNumber(),
-                humansPage.getTotalElements(),
-                humansPage.getTotalPages()
-        );
+        PaginationResponseDTO<HumanDTO> response = new PaginationResponseDTO<>(humansPage);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -57,4 +70,9 @@ public class HumanController {
         humanService.deleteHuman(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CsvImportReportDTO> importHumansCsv(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(csvImportService.importCsv(CsvImportType.HUMANS, file));
+    }
+}
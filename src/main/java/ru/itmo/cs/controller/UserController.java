@@ -9,6 +9,7 @@ import ru.itmo.cs.entity.User;
 import ru.itmo.cs.service.JwtService;
 import ru.itmo.cs.service.UserService;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.hashing.PasswordHashingHandler;
 
 import java.util.List;
 
@@ -21,6 +22,7 @@ public class UserController {
     private final JwtService jwtService;
 
     private final EntityMapper entityMapper;
+    private final PasswordHashingHandler passwordHashingHandler;
 
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody UserRegistrationDTO registrationDTO) {
@@ -74,6 +76,11 @@ public class UserController {
         return ResponseEntity.ok("Admin request rejected");
     }
 
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingHandler.getStats());
+    }
+
     @GetMapping("/current")
     public ResponseEntity<UserDTO> getCurrentUser() {
         User currentUser = userService.getCurrentUser();
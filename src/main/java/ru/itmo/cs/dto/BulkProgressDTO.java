@@ -0,0 +1,13 @@
+package ru.itmo.cs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProgressDTO {
+    private long affected;
+    private boolean done;
+}
@@ -0,0 +1,17 @@
+package ru.itmo.cs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CacheStatsDTO {
+    private String name;
+    private int size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+}
@@ -0,0 +1,22 @@
+package ru.itmo.cs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.itmo.cs.util.csv.CsvImportType;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CsvImportReportDTO {
+    private CsvImportType type;
+    private long rows;
+    private long imported;
+    private long rejected;
+    private long failed;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<String> errors;
+}
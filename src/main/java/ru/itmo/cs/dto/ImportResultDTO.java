@@ -0,0 +1,27 @@
+package ru.itmo.cs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private long index;
+    private ImportStatus status;
+    private Long id;
+    private String error;
+
+    public static ImportResultDTO created(long index, Long id) {
+        return new ImportResultDTO(index, ImportStatus.CREATED, id, null);
+    }
+
+    public static ImportResultDTO rejected(long index, String error) {
+        return new ImportResultDTO(index, ImportStatus.REJECTED, null, error);
+    }
+
+    public static ImportResultDTO failed(long index, String error) {
+        return new ImportResultDTO(index, ImportStatus.FAILED, null, error);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.itmo.cs.dto;
+
+public enum ImportStatus {
+    CREATED,
+    REJECTED,
+    FAILED
+}
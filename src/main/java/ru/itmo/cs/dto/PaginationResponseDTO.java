@@ -2,6 +2,9 @@ package ru.itmo.cs.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import ru.itmo.cs.util.pagination.CursorPage;
 
 import java.util.List;
 
@@ -9,7 +12,30 @@ import java.util.List;
 @AllArgsConstructor
 public class PaginationResponseDTO<T> {
     private List<T> content;
-    private int currentPage;
-    private long totalItems;
-    private int totalPages;
+    private Integer currentPage;
+    private Long totalItems;
+    private Integer totalPages;
+    private Boolean hasNext;
+    private String nextCursor;
+    private String prevCursor;
+
+    public PaginationResponseDTO(Slice<T> slice) {
+        this(slice.getContent(),
+                slice.getNumber(),
+                slice instanceof Page<T> page ? page.getTotalElements() : null,
+                slice instanceof Page<T> page ? page.getTotalPages() : null,
+                slice.hasNext(),
+                null,
+                null);
+    }
+
+    public PaginationResponseDTO(CursorPage<T> cursorPage) {
+        this(cursorPage.getContent(),
+                null,
+                null,
+                null,
+                cursorPage.getNextCursor() != null,
+                cursorPage.getNextCursor(),
+                cursorPage.getPrevCursor());
+    }
 }
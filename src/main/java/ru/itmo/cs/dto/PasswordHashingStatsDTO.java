@@ -0,0 +1,19 @@
+package ru.itmo.cs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class PasswordHashingStatsDTO {
+    private int threads;
+    private int active;
+    private int queued;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    private double averageLatencyMs;
+    private double maxLatencyMs;
+}
@@ -0,0 +1,25 @@
+package ru.itmo.cs.dto.city;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.entity.enums.StandardOfLiving;
+
+/**
+ * Fields set on every matching city by a bulk update; {@code null} leaves the field as it is.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityBulkUpdateDTO {
+    private Climate climate;
+    private Government government;
+    private StandardOfLiving standardOfLiving;
+    private Boolean capital;
+
+    public boolean isEmpty() {
+        return climate == null && government == null && standardOfLiving == null && capital == null;
+    }
+}
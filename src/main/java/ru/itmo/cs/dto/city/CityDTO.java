@@ -1,5 +1,6 @@
 package ru.itmo.cs.dto.city;
 
+import com.fasterxml.jackson.annotation.JsonMerge;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -39,6 +40,7 @@ public class CityDTO {
     private Government government;
 
     @NotNull
+    @JsonMerge
     private CoordinatesDTO coordinates;
 
     private Boolean capital;
@@ -49,6 +51,7 @@ public class CityDTO {
 
     private LocalDateTime establishmentDate;
 
+    @JsonMerge
     private HumanDTO governor;
 
     private User createdBy;
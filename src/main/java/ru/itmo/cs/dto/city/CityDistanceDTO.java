@@ -0,0 +1,13 @@
+package ru.itmo.cs.dto.city;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityDistanceDTO {
+    private CityDTO city;
+    private double distance;
+}
@@ -23,5 +23,10 @@ public class CoordinatesDTO {
     private Double y;
 
     private User createdBy;
+
+    // only an id: the city links the existing row as is
+    public static boolean isReference(CoordinatesDTO coordinatesDTO) {
+        return coordinatesDTO.getId() != null && coordinatesDTO.getX() == null && coordinatesDTO.getY() == null;
+    }
 }
 
@@ -28,5 +28,11 @@ public class HumanDTO {
     private ZonedDateTime birthday;
 
     private User createdBy;
+
+    // only an id: the city links the existing row as is
+    public static boolean isReference(HumanDTO humanDTO) {
+        return humanDTO.getId() != null && humanDTO.getName() == null && humanDTO.getAge() == 0
+                && humanDTO.getHeight() == 0 && humanDTO.getBirthday() == null;
+    }
 }
 
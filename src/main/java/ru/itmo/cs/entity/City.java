@@ -8,25 +8,47 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import ru.itmo.cs.entity.audit.CityAudit;
 import ru.itmo.cs.entity.enums.Climate;
 import ru.itmo.cs.entity.enums.Government;
 import ru.itmo.cs.entity.enums.StandardOfLiving;
+import ru.itmo.cs.util.search.NameIndexListener;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "city")
+@DynamicUpdate
+// schema generation only; existing databases get these from db/city-filter-indexes.sql
+@Table(name = "city", indexes = {
+        @Index(name = "idx_city_climate_government_standard", columnList = "climate, government, standard_of_living"),
+        @Index(name = "idx_city_government_standard", columnList = "government, standard_of_living"),
+        @Index(name = "idx_city_standard_of_living", columnList = "standard_of_living"),
+        @Index(name = "idx_city_governor", columnList = "governor_id")
+})
+@NamedEntityGraph(
+        name = "City.details",
+        attributeNodes = {
+                @NamedAttributeNode(value = "coordinates", subgraph = "coordinates.createdBy"),
+                @NamedAttributeNode(value = "governor", subgraph = "governor.createdBy"),
+                @NamedAttributeNode("createdBy")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "coordinates.createdBy", attributeNodes = @NamedAttributeNode("createdBy")),
+                @NamedSubgraph(name = "governor.createdBy", attributeNodes = @NamedAttributeNode("createdBy"))
+        })
+@EntityListeners(NameIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 public class City {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "city_seq")
+    @SequenceGenerator(name = "city_seq", sequenceName = "city_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -7,19 +7,23 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 import ru.itmo.cs.entity.audit.CoordinatesAudit;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "coordinates")
+@NamedEntityGraph(name = "Coordinates.details", attributeNodes = @NamedAttributeNode("createdBy"))
 @Getter
 @Setter
 @NoArgsConstructor
 public class Coordinates {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coordinates_seq")
+    @SequenceGenerator(name = "coordinates_seq", sequenceName = "coordinates_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
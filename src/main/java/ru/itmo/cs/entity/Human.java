@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -11,19 +12,24 @@ import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 import ru.itmo.cs.entity.audit.HumanAudit;
+import ru.itmo.cs.util.search.NameIndexListener;
 
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "human")
+@NamedEntityGraph(name = "Human.details", attributeNodes = @NamedAttributeNode("createdBy"))
+@EntityListeners(NameIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 public class Human {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "human_seq")
+    @SequenceGenerator(name = "human_seq", sequenceName = "human_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 public class CityAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // rows are inserted by DefaultAuditWriter, which takes one sequence value per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "city_audit_seq")
+    @SequenceGenerator(name = "city_audit_seq", sequenceName = "city_audit_seq", allocationSize = 1)
     private Long id;
 
     @ManyToOne
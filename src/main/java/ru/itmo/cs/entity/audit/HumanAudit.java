@@ -18,7 +18,9 @@ import java.time.LocalDateTime;
 public class HumanAudit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // rows are inserted by DefaultAuditWriter, which takes one sequence value per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "human_audit_seq")
+    @SequenceGenerator(name = "human_audit_seq", sequenceName = "human_audit_seq", allocationSize = 1)
     private Long id;
 
     @ManyToOne
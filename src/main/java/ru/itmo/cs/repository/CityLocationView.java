@@ -0,0 +1,14 @@
+package ru.itmo.cs.repository;
+
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+
+public interface CityLocationView {
+    Long getId();
+    double getArea();
+    Climate getClimate();
+    Government getGovernment();
+    Long getCoordinatesId();
+    long getX();
+    double getY();
+}
@@ -2,32 +2,49 @@ package ru.itmo.cs.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.cs.entity.City;
-import ru.itmo.cs.entity.enums.Climate;
 import ru.itmo.cs.entity.enums.Government;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CityRepository extends JpaRepository<City, Long> {
+public interface CityRepository extends JpaRepository<City, Long>, JpaSpecificationExecutor<City> {
+    String DETAILS_GRAPH = "City.details";
+    List<String> DETAILS_PATHS = List.of("coordinates.createdBy", "governor.createdBy", "createdBy");
+
+    @EntityGraph(DETAILS_GRAPH)
     Optional<City> findById(Long id);
+    @EntityGraph(DETAILS_GRAPH)
     Optional<City> findFirstByGovernment(Government government);
-    @Query("SELECT SUM(c.metersAboveSeaLevel) FROM City c")
-    Long sumMetersAboveSeaLevel();
-    @Query("SELECT c FROM City c WHERE c.climate > :climate")
-    List<City> findByClimateGreaterThan(@Param("climate") Climate climate);
+    @Query("SELECT c.climate AS climate, COUNT(c) AS cities, " +
+            "COALESCE(SUM(c.metersAboveSeaLevel), 0) AS metersAboveSeaLevel " +
+            "FROM City c GROUP BY c.climate")
+    List<ClimateTotalsView> sumByClimate();
+
+    @Query("SELECT c.id AS id, c.area AS area, c.climate AS climate, c.government AS government, " +
+            "co.id AS coordinatesId, co.x AS x, co.y AS y FROM City c JOIN c.coordinates co")
+    Stream<CityLocationView> streamLocations();
 
-    City findTopByOrderByAreaDesc();
-    @Query("SELECT c FROM City c " +
-            "LEFT JOIN c.governor g " +
-            "WHERE (:name IS NULL OR c.name LIKE %:name%) " +
-            "AND (:governorName IS NULL OR g.name LIKE %:governorName%)")
-    Page<City> findByFilters(@Param("name") String name,
-                             @Param("governorName") String governorName,
-                             Pageable pageable);
+    @Query("SELECT c.id AS id, c.area AS area, c.climate AS climate, c.government AS government, " +
+            "co.id AS coordinatesId, co.x AS x, co.y AS y FROM City c JOIN c.coordinates co WHERE c.id IN :ids")
+    List<CityLocationView> findLocationsByIdIn(@Param("ids") Collection<Long> ids);
+    @Override
+    @EntityGraph(DETAILS_GRAPH)
+    Page<City> findAll(Specification<City> specification, Pageable pageable);
+    @Override
+    @EntityGraph(DETAILS_GRAPH)
+    List<City> findAllById(Iterable<Long> ids);
+    Stream<NameView> streamAllProjectedBy();
+    long countByCoordinatesId(Long coordinatesId);
+    long countByGovernorId(Long governorId);
 }
@@ -0,0 +1,9 @@
+package ru.itmo.cs.repository;
+
+import ru.itmo.cs.entity.enums.Climate;
+
+public interface ClimateTotalsView {
+    Climate getClimate();
+    long getCities();
+    long getMetersAboveSeaLevel();
+}
@@ -1,14 +1,29 @@
 package ru.itmo.cs.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import ru.itmo.cs.entity.Coordinates;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CoordinatesRepository extends JpaRepository<Coordinates, Long> {
+public interface CoordinatesRepository extends JpaRepository<Coordinates, Long>, JpaSpecificationExecutor<Coordinates> {
+    String DETAILS_GRAPH = "Coordinates.details";
+    List<String> DETAILS_PATHS = List.of("createdBy");
+
+    @Override
+    @EntityGraph(DETAILS_GRAPH)
+    Page<Coordinates> findAll(Pageable pageable);
+    @EntityGraph(DETAILS_GRAPH)
     Optional<Coordinates> findById(Long id);
+    @EntityGraph(DETAILS_GRAPH)
+    Slice<Coordinates> findSliceBy(Pageable pageable);
 }
 
 
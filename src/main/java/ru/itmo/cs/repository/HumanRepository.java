@@ -2,17 +2,26 @@ package ru.itmo.cs.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
-import ru.itmo.cs.entity.City;
 import ru.itmo.cs.entity.Human;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface HumanRepository extends JpaRepository<Human, Long> {
+public interface HumanRepository extends JpaRepository<Human, Long>, JpaSpecificationExecutor<Human> {
+    String DETAILS_GRAPH = "Human.details";
+    List<String> DETAILS_PATHS = List.of("createdBy");
+
+    @Override
+    @EntityGraph(DETAILS_GRAPH)
+    Page<Human> findAll(Specification<Human> specification, Pageable pageable);
+    @EntityGraph(DETAILS_GRAPH)
     Optional<Human> findById(Long id);
-    Page<Human> findByNameContaining(String name, Pageable pageable);
+    Stream<NameView> streamAllProjectedBy();
 }
-
-
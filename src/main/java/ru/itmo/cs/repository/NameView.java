@@ -0,0 +1,6 @@
+package ru.itmo.cs.repository;
+
+public interface NameView {
+    Long getId();
+    String getName();
+}
@@ -1,10 +1,30 @@
 package ru.itmo.cs.repository.audit;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.cs.entity.audit.CityAudit;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 @Repository
 public interface CityAuditRepository extends JpaRepository<CityAudit, Long> {
-    void deleteAllByCityId(Long cityId);
+    @Modifying
+    @Query("DELETE FROM CityAudit a WHERE a.city.id = :cityId")
+    int deleteAllByCityId(@Param("cityId") Long cityId);
+
+    @Modifying
+    @Query("DELETE FROM CityAudit a WHERE a.city.id IN :cityIds")
+    int deleteAllByCityIdIn(@Param("cityIds") Collection<Long> cityIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO city_audit (id, city_id, user_id, operation, operation_time) " +
+            "SELECT nextval('city_audit_seq'), c.id, :userId, :operation, :operationTime FROM city c " +
+            "WHERE c.id IN :cityIds", nativeQuery = true)
+    int insertAllByCityIdIn(@Param("cityIds") Collection<Long> cityIds, @Param("userId") Long userId,
+                            @Param("operation") String operation,
+                            @Param("operationTime") LocalDateTime operationTime);
 }
@@ -1,10 +1,15 @@
 package ru.itmo.cs.repository.audit;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.cs.entity.audit.CoordinatesAudit;
 
 @Repository
 public interface CoordinatesAuditRepository extends JpaRepository<CoordinatesAudit, Long> {
-    void deleteAllByCoordinatesId(Long coordinatesId);
+    @Modifying
+    @Query("DELETE FROM CoordinatesAudit a WHERE a.coordinates.id = :coordinatesId")
+    int deleteAllByCoordinatesId(@Param("coordinatesId") Long coordinatesId);
 }
@@ -1,10 +1,15 @@
 package ru.itmo.cs.repository.audit;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.itmo.cs.entity.audit.HumanAudit;
 
 @Repository
 public interface HumanAuditRepository extends JpaRepository<HumanAudit, Long> {
-    void deleteAllByHumanId(Long humanId);
+    @Modifying
+    @Query("DELETE FROM HumanAudit a WHERE a.human.id = :humanId")
+    int deleteAllByHumanId(@Param("humanId") Long humanId);
 }
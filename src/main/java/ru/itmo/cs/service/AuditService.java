@@ -12,6 +12,12 @@ import ru.itmo.cs.repository.audit.CityAuditRepository;
 import ru.itmo.cs.repository.audit.CoordinatesAuditRepository;
 import ru.itmo.cs.repository.audit.HumanAuditRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.audit.AuditRecord;
+import ru.itmo.cs.util.audit.AuditTarget;
+import ru.itmo.cs.util.audit.AuditWriter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 
 
 @Service
@@ -21,6 +27,7 @@ public class AuditService {
     private HumanAuditRepository humanAuditRepository;
     private CoordinatesAuditRepository coordinatesAuditRepository;
     private EntityMapper entityMapper;
+    private AuditWriter auditWriter;
 
     @Autowired
     public void setCoordinatesAuditRepository(CoordinatesAuditRepository coordinatesAuditRepository) {
@@ -42,36 +49,56 @@ public class AuditService {
         this.entityMapper = entityMapper;
     }
 
+    @Autowired
+    public void setAuditWriter(AuditWriter auditWriter) {
+        this.auditWriter = auditWriter;
+    }
+
     @Transactional
     public void auditCity(City city, AuditOperation operation) {
         CityAudit cityAudit = entityMapper.toCityAudit(city, operation);
-        cityAuditRepository.save(cityAudit);
+        auditWriter.write(AuditRecord.of(cityAudit));
+    }
+
+    // one INSERT ... SELECT for cities changed by a bulk statement, written in the caller's transaction
+    @Transactional
+    public void auditCities(Collection<Long> cityIds, User user, AuditOperation operation) {
+        cityAuditRepository.insertAllByCityIdIn(cityIds, user.getId(), operation.name(), LocalDateTime.now());
     }
 
     @Transactional
     public void auditHuman(Human human, AuditOperation operation) {
         HumanAudit humanAudit = entityMapper.toHumanAudit(human, operation);
-        humanAuditRepository.save(humanAudit);
+        auditWriter.write(AuditRecord.of(humanAudit));
     }
 
     @Transactional
     public void auditCoordinates(Coordinates coordinates, AuditOperation operation) {
         CoordinatesAudit coordinatesAudit = entityMapper.toCoordinatesAudit(coordinates, operation);
-        coordinatesAuditRepository.save(coordinatesAudit);
+        auditWriter.write(AuditRecord.of(coordinatesAudit));
     }
 
     @Transactional
     public void deleteCityAuditEntries(Long cityId) {
+        auditWriter.discard(AuditTarget.CITY, cityId);
         cityAuditRepository.deleteAllByCityId(cityId);
     }
 
+    @Transactional
+    public void deleteCityAuditEntries(Collection<Long> cityIds) {
+        cityIds.forEach(cityId -> auditWriter.discard(AuditTarget.CITY, cityId));
+        cityAuditRepository.deleteAllByCityIdIn(cityIds);
+    }
+
     @Transactional
     public void deleteCoordinatesAuditEntries(Long coordinatesId) {
+        auditWriter.discard(AuditTarget.COORDINATES, coordinatesId);
         coordinatesAuditRepository.deleteAllByCoordinatesId(coordinatesId);
     }
 
     @Transactional
     public void deleteHumanAuditEntries(Long humanId) {
+        auditWriter.discard(AuditTarget.HUMAN, humanId);
         humanAuditRepository.deleteAllByHumanId(humanId);
     }
 }
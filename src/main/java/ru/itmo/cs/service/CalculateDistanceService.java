@@ -8,6 +8,61 @@ public class CalculateDistanceService {
         if (Double.isNaN(x1) || Double.isNaN(y1) || Double.isNaN(z1) || Double.isNaN(x2) || Double.isNaN(y2) || Double.isNaN(z2)) {
             throw new IllegalArgumentException("Координаты не должны содержать NaN");
         }
-        return Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2) + Math.pow(z2 - z1, 2));
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dz = z2 - z1;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Distances from one point to the first {@code count} points of {@code xs}/{@code ys}/{@code zs},
+     * written to {@code out}.
+     */
+    public void calculate(double x, double y, double z,
+                          double[] xs, double[] ys, double[] zs, double[] out, int count) {
+        checkBounds(count, out, xs, ys, zs);
+        if (Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(z)) {
+            throw new IllegalArgumentException("Координаты не должны содержать NaN");
+        }
+        // a plain counted loop over parallel arrays is what the JIT auto-vectorizes
+        for (int i = 0; i < count; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            double dz = zs[i] - z;
+            out[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        checkNaN(out, count, xs, ys, zs);
+    }
+
+    /**
+     * Pairwise distances between the i-th points of the two sets, written to {@code out}.
+     */
+    public void calculate(double[] x1, double[] y1, double[] z1,
+                          double[] x2, double[] y2, double[] z2, double[] out, int count) {
+        checkBounds(count, out, x1, y1, z1);
+        checkBounds(count, out, x2, y2, z2);
+        for (int i = 0; i < count; i++) {
+            double dx = x2[i] - x1[i];
+            double dy = y2[i] - y1[i];
+            double dz = z2[i] - z1[i];
+            out[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        checkNaN(out, count, x1, y1, z1);
+        checkNaN(out, count, x2, y2, z2);
+    }
+
+    private static void checkBounds(int count, double[] out, double[] xs, double[] ys, double[] zs) {
+        if (count < 0 || out.length < count || xs.length < count || ys.length < count || zs.length < count) {
+            throw new IllegalArgumentException("Некорректный размер массива координат");
+        }
+    }
+
+    // NaN in any input shows up as NaN in the result, so the inputs are only inspected when one does
+    private static void checkNaN(double[] out, int count, double[] xs, double[] ys, double[] zs) {
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(out[i]) && (Double.isNaN(xs[i]) || Double.isNaN(ys[i]) || Double.isNaN(zs[i]))) {
+                throw new IllegalArgumentException("Координаты не должны содержать NaN");
+            }
+        }
     }
 }
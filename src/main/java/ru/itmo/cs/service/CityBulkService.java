@@ -0,0 +1,222 @@
+package ru.itmo.cs.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itmo.cs.dto.BulkProgressDTO;
+import ru.itmo.cs.dto.city.CityBulkUpdateDTO;
+import ru.itmo.cs.dto.city.CityFilterCriteria;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.audit.AuditOperation;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.UserRole;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.util.aggregate.CityAggregateHandler;
+import ru.itmo.cs.util.aggregate.CityContribution;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.filter.CityFilterProcessor;
+import ru.itmo.cs.util.search.NameSearchHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Set-based operations over every city that matches a filter and that the current user may modify.
+ * Matching ids are taken in chunks by a single projection query and each chunk is changed with
+ * bulk statements in its own transaction, so no city entity is loaded.
+ */
+@Service
+@RequiredArgsConstructor
+public class CityBulkService {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CityRepository cityRepository;
+    private final CityFilterProcessor cityFilterProcessor;
+    private final AuditService auditService;
+    private final UserService userService;
+    private final DtoCacheHandler dtoCacheHandler;
+    private final CityAggregateHandler cityAggregateHandler;
+    private final LargestCityHandler largestCityHandler;
+    private final SpatialIndexHandler spatialIndexHandler;
+    private final NameSearchHandler nameSearchHandler;
+
+    @Value("${bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Writes a progress line after every chunk and a final line with {@code done} set.
+     */
+    public void deleteCities(CityFilterCriteria criteria, OutputStream out) throws IOException {
+        try (SequenceWriter progress = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            long deleted = deleteCities(criteria, affected -> write(progress, new BulkProgressDTO(affected, false)));
+            write(progress, new BulkProgressDTO(deleted, true));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public long deleteCities(CityFilterCriteria criteria, LongConsumer progress) {
+        return forEachChunk(modifiableMatches(criteria, userService.getCurrentUser()), this::deleteChunk, progress);
+    }
+
+    public void updateCities(CityFilterCriteria criteria, CityBulkUpdateDTO patch, OutputStream out) throws IOException {
+        try (SequenceWriter progress = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            long updated = updateCities(criteria, patch, affected -> write(progress, new BulkProgressDTO(affected, false)));
+            write(progress, new BulkProgressDTO(updated, true));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public long updateCities(CityFilterCriteria criteria, CityBulkUpdateDTO patch, LongConsumer progress) {
+        requirePatch(patch);
+        User currentUser = userService.getCurrentUser();
+        return forEachChunk(modifiableMatches(criteria, currentUser), rows -> updateChunk(rows, patch, currentUser), progress);
+    }
+
+    // ids are taken after the last processed one, so cities that still match after an update are not seen twice
+    private long forEachChunk(Specification<City> specification, Consumer<List<Tuple>> action, LongConsumer progress) {
+        long processed = 0;
+        Long lastId = null;
+        while (true) {
+            Long afterId = lastId;
+            List<Tuple> rows = transactionTemplate.execute(status -> {
+                List<Tuple> chunk = nextChunk(specification, afterId);
+                if (!chunk.isEmpty()) {
+                    action.accept(chunk);
+                }
+                return chunk;
+            });
+            if (rows == null || rows.isEmpty()) {
+                return processed;
+            }
+            processed += rows.size();
+            lastId = rows.get(rows.size() - 1).get(0, Long.class);
+            progress.accept(processed);
+        }
+    }
+
+    private void deleteChunk(List<Tuple> rows) {
+        List<Long> ids = ids(rows);
+
+        auditService.deleteCityAuditEntries(ids);
+        cityRepository.deleteAllByIdInBatch(ids);
+
+        // bulk statements bypass the entity listeners, so the indexes are told directly
+        for (Tuple row : rows) {
+            Long id = row.get(0, Long.class);
+            cityAggregateHandler.subtract(new CityContribution(row.get(1, Climate.class), row.get(2, Long.class)));
+            largestCityHandler.cityRemoved(id);
+            spatialIndexHandler.cityRemoved(id);
+            nameSearchHandler.cityRemoved(id);
+            dtoCacheHandler.evictCity(id);
+        }
+    }
+
+    private void updateChunk(List<Tuple> rows, CityBulkUpdateDTO patch, User currentUser) {
+        List<Long> ids = ids(rows);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<City> update = cb.createCriteriaUpdate(City.class);
+        Root<City> root = update.from(City.class);
+        set(update, root, "climate", patch.getClimate());
+        set(update, root, "government", patch.getGovernment());
+        set(update, root, "standardOfLiving", patch.getStandardOfLiving());
+        set(update, root, "capital", patch.getCapital());
+        entityManager.createQuery(update.where(root.get("id").in(ids))).executeUpdate();
+        auditService.auditCities(ids, currentUser, AuditOperation.UPDATE);
+
+        // area, coordinates and names are untouched, so only the climate totals and the spatial filters move
+        if (patch.getClimate() != null) {
+            for (Tuple row : rows) {
+                long meters = row.get(2, Long.class);
+                cityAggregateHandler.subtract(new CityContribution(row.get(1, Climate.class), meters));
+                cityAggregateHandler.add(new CityContribution(patch.getClimate(), meters));
+            }
+        }
+        if (patch.getClimate() != null || patch.getGovernment() != null) {
+            cityRepository.findLocationsByIdIn(ids).forEach(spatialIndexHandler::cityChanged);
+        }
+        ids.forEach(dtoCacheHandler::evictCity);
+    }
+
+    private static <T> void set(CriteriaUpdate<City> update, Root<City> root, String attribute, T value) {
+        if (value != null) {
+            update.set(root.<T>get(attribute), value);
+        }
+    }
+
+    private List<Tuple> nextChunk(Specification<City> specification, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<City> root = query.from(City.class);
+        Predicate matches = specification.toPredicate(root, query, cb);
+        if (afterId != null) {
+            matches = cb.and(matches, cb.greaterThan(root.get("id"), afterId));
+        }
+        query.multiselect(root.get("id"), root.get("climate"), root.get("metersAboveSeaLevel"))
+                .where(matches)
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(chunkSize).getResultList();
+    }
+
+    private static List<Long> ids(List<Tuple> rows) {
+        return rows.stream().map(row -> row.get(0, Long.class)).toList();
+    }
+
+    // an empty filter would match every city
+    public void requireFilter(CityFilterCriteria criteria) {
+        if (isBlank(criteria.getName()) && criteria.getClimate() == null && criteria.getGovernment() == null
+                && criteria.getStandardOfLiving() == null && isBlank(criteria.getGovernorName())) {
+            throw new IllegalArgumentException("Укажите хотя бы один фильтр");
+        }
+    }
+
+    public void requirePatch(CityBulkUpdateDTO patch) {
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("Укажите хотя бы одно поле для изменения");
+        }
+    }
+
+    // the rule of UserService.canModifyCity, expressed as a predicate instead of a check per loaded city
+    private Specification<City> modifiableMatches(CityFilterCriteria criteria, User currentUser) {
+        requireFilter(criteria);
+        Specification<City> specification = cityFilterProcessor.toSpecification(criteria);
+        if (currentUser.getRole() == UserRole.ADMIN) {
+            return specification;
+        }
+        return specification.and((root, query, cb) -> cb.equal(root.get("createdBy").get("id"), currentUser.getId()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static void write(SequenceWriter progress, BulkProgressDTO line) {
+        try {
+            progress.write(line);
+            progress.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.itmo.cs.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.itmo.cs.dto.ImportResultDTO;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
+import ru.itmo.cs.dto.human.HumanDTO;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.entity.Human;
+import ru.itmo.cs.util.imports.ImportChunkHandler;
+import ru.itmo.cs.util.imports.ImportRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CityImportService {
+    private final CityService cityService;
+    private final CoordinatesService coordinatesService;
+    private final HumanService humanService;
+    private final ObjectMapper objectMapper;
+    private final ImportChunkHandler importChunkHandler;
+
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Reads cities one at a time from a JSON array or newline-delimited JSON and writes one
+     * result line per record; at most one chunk of records is held in memory.
+     */
+    public void importCities(InputStream body, OutputStream out) throws IOException {
+        try (MappingIterator<CityDTO> records = objectMapper.readerFor(CityDTO.class).readValues(body);
+             SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            List<ImportRow<CityDTO>> chunk = new ArrayList<>(chunkSize);
+            long index = 0;
+            while (true) {
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    CityDTO city = records.nextValue();
+                    chunk.add(validate(index, city));
+                } catch (JsonParseException e) {
+                    // the stream itself is broken, nothing after this point can be read
+                    chunk.add(ImportRow.rejected(ImportResultDTO.failed(index, e.getOriginalMessage())));
+                    break;
+                } catch (JsonMappingException e) {
+                    chunk.add(ImportRow.rejected(ImportResultDTO.rejected(index, e.getOriginalMessage())));
+                } finally {
+                    index++;
+                }
+                if (chunk.size() >= chunkSize) {
+                    write(results, importChunkHandler.persist(chunk, this::saveCities));
+                    chunk.clear();
+                }
+            }
+            write(results, importChunkHandler.persist(chunk, this::saveCities));
+        }
+    }
+
+    private void write(SequenceWriter results, List<ImportResultDTO> chunkResults) throws IOException {
+        for (ImportResultDTO result : chunkResults) {
+            results.write(result);
+        }
+        results.flush();
+    }
+
+    /**
+     * Saves the accepted rows in the caller's transaction; identical coordinates and governors
+     * within the rows are stored once and shared.
+     */
+    public List<ImportResultDTO> saveCities(List<ImportRow<CityDTO>> rows) {
+        Map<CoordinatesDTO, Coordinates> coordinates = new HashMap<>();
+        Map<HumanDTO, Human> governors = new HashMap<>();
+        List<ImportResultDTO> results = new ArrayList<>(rows.size());
+        for (ImportRow<CityDTO> row : rows) {
+            if (row.rejection() != null) {
+                results.add(row.rejection());
+                continue;
+            }
+            CityDTO cityDTO = row.value();
+            Coordinates savedCoordinates = coordinates.computeIfAbsent(cityDTO.getCoordinates(),
+                    coordinatesService::createOrUpdateCoordinatesForCity);
+            Human savedHuman = governors.computeIfAbsent(cityDTO.getGovernor(),
+                    humanService::createOrUpdateHumanForCity);
+            City savedCity = cityService.createCity(cityDTO, savedCoordinates, savedHuman);
+            results.add(ImportResultDTO.created(row.index(), savedCity.getId()));
+        }
+        return results;
+    }
+
+    public ImportRow<CityDTO> validate(long index, CityDTO city) {
+        List<String> errors = new ArrayList<>(importChunkHandler.violations("", city));
+        if (city.getCoordinates() != null && !CoordinatesDTO.isReference(city.getCoordinates())) {
+            errors.addAll(importChunkHandler.violations("coordinates.", city.getCoordinates()));
+        }
+        if (city.getGovernor() == null) {
+            errors.add("governor: обязательное поле");
+        } else if (!HumanDTO.isReference(city.getGovernor())) {
+            errors.addAll(importChunkHandler.violations("governor.", city.getGovernor()));
+        }
+        if (errors.isEmpty()) {
+            return ImportRow.accepted(index, city);
+        }
+        errors.sort(null);
+        return ImportRow.rejected(ImportResultDTO.rejected(index, String.join("; ", errors)));
+    }
+}
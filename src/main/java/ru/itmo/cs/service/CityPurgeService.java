@@ -0,0 +1,85 @@
+package ru.itmo.cs.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.entity.Human;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.exception.ResourceNotFoundException;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.repository.CoordinatesRepository;
+import ru.itmo.cs.repository.HumanRepository;
+import ru.itmo.cs.util.aggregate.CityAggregateHandler;
+import ru.itmo.cs.util.aggregate.CityContribution;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.search.NameSearchHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Removes a city together with its audit history, and its coordinates and governor when no other
+ * city uses them and they belong to the city's owner. Every step is one set-based statement, so
+ * the number of statements does not depend on how long the history is.
+ */
+@Service
+@RequiredArgsConstructor
+public class CityPurgeService {
+    private final CityRepository cityRepository;
+    private final CoordinatesRepository coordinatesRepository;
+    private final HumanRepository humanRepository;
+    private final AuditService auditService;
+    private final UserService userService;
+    private final DtoCacheHandler dtoCacheHandler;
+    private final CityAggregateHandler cityAggregateHandler;
+    private final LargestCityHandler largestCityHandler;
+    private final SpatialIndexHandler spatialIndexHandler;
+    private final NameSearchHandler nameSearchHandler;
+
+    @Transactional
+    public void purgeCity(Long id) {
+        City city = cityRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("City не найден"));
+
+        if (!userService.canModifyCity(city)) {
+            throw new SecurityException("У вас нет разрешения на удаление этого City");
+        }
+
+        Coordinates coordinates = city.getCoordinates();
+        Human governor = city.getGovernor();
+        boolean purgeCoordinates = coordinates != null && isOwnedBy(coordinates.getCreatedBy(), city)
+                && cityRepository.countByCoordinatesId(coordinates.getId()) == 1;
+        boolean purgeGovernor = governor != null && isOwnedBy(governor.getCreatedBy(), city)
+                && cityRepository.countByGovernorId(governor.getId()) == 1;
+
+        // bulk statements bypass the entity listeners, so the indexes are told directly below
+        auditService.deleteCityAuditEntries(city.getId());
+        cityRepository.deleteAllByIdInBatch(List.of(city.getId()));
+        cityAggregateHandler.subtract(CityContribution.of(city));
+        largestCityHandler.cityRemoved(city.getId());
+        spatialIndexHandler.cityRemoved(city.getId());
+        nameSearchHandler.cityRemoved(city.getId());
+        dtoCacheHandler.evictCity(city.getId());
+
+        if (purgeCoordinates) {
+            auditService.deleteCoordinatesAuditEntries(coordinates.getId());
+            coordinatesRepository.deleteAllByIdInBatch(List.of(coordinates.getId()));
+            dtoCacheHandler.evictCoordinates(coordinates.getId());
+            largestCityHandler.coordinatesRemoved(coordinates.getId());
+        }
+        if (purgeGovernor) {
+            auditService.deleteHumanAuditEntries(governor.getId());
+            humanRepository.deleteAllByIdInBatch(List.of(governor.getId()));
+            nameSearchHandler.humanRemoved(governor.getId());
+            dtoCacheHandler.evictHuman(governor.getId());
+        }
+    }
+
+    private static boolean isOwnedBy(User creator, City city) {
+        return creator != null && Objects.equals(creator.getId(), city.getCreatedBy().getId());
+    }
+}
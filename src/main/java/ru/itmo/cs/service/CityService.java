@@ -1,13 +1,19 @@
 package ru.itmo.cs.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.city.CityDistanceDTO;
 import ru.itmo.cs.dto.city.CityFilterCriteria;
+import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
+import ru.itmo.cs.dto.human.HumanDTO;
 import ru.itmo.cs.entity.*;
 import ru.itmo.cs.entity.audit.AuditOperation;
 import ru.itmo.cs.entity.enums.Climate;
@@ -16,14 +22,33 @@ import ru.itmo.cs.entity.enums.StandardOfLiving;
 import ru.itmo.cs.exception.ResourceNotFoundException;
 import ru.itmo.cs.repository.CityRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.aggregate.CityAggregateHandler;
+import ru.itmo.cs.util.aggregate.CityContribution;
+import ru.itmo.cs.util.aggregate.CityLocation;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
 import ru.itmo.cs.util.filter.FilterProcessor;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
+import ru.itmo.cs.util.pagination.KeysetPaginationHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
+import ru.itmo.cs.util.spatial.SpatialMatch;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CityService {
+    private static final int MAX_SPATIAL_RESULTS = 1000;
 
     private final CityRepository cityRepository;
     private final CoordinatesService coordinatesService;
@@ -33,12 +58,20 @@ public class CityService {
     private final EntityMapper entityMapper;
     private final FilterProcessor<CityDTO, CityFilterCriteria> cityFilterProcessor;
     private final PaginationHandler paginationHandler;
+    private final KeysetPaginationHandler keysetPaginationHandler;
+    private final CountHandler countHandler;
     private final CalculateDistanceService calculateDistanceService;
+    private final DtoCacheHandler dtoCacheHandler;
+    private final CityAggregateHandler cityAggregateHandler;
+    private final LargestCityHandler largestCityHandler;
+    private final SpatialIndexHandler spatialIndexHandler;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     @Transactional(readOnly = true)
-    public Page<CityDTO> getAllCities(String name, Climate climate, Government government,
-                                      StandardOfLiving standardOfLiving, String governorName,
-                                      int page, int size, String sortBy, String sortDir) {
+    public Slice<CityDTO> getAllCities(String name, Climate climate, Government government,
+                                       StandardOfLiving standardOfLiving, String governorName,
+                                       int page, int size, String sortBy, String sortDir, CountMode countMode) {
         CityFilterCriteria criteria = new CityFilterCriteria();
         criteria.setName(name);
         criteria.setClimate(climate);
@@ -47,14 +80,31 @@ public class CityService {
         criteria.setGovernorName(governorName);
 
         Pageable pageable = paginationHandler.createPageable(page, size, sortBy, sortDir);
-        return cityFilterProcessor.filter(criteria, pageable);
+        return countHandler.paginate(countMode, "city:" + criteria, pageable,
+                p -> cityFilterProcessor.filter(criteria, p),
+                p -> cityFilterProcessor.filterSlice(criteria, p),
+                () -> cityFilterProcessor.count(criteria));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<CityDTO> scrollCities(String name, Climate climate, Government government,
+                                            StandardOfLiving standardOfLiving, String governorName,
+                                            String cursor, int size, String sortBy, String sortDir) {
+        CityFilterCriteria criteria = new CityFilterCriteria();
+        criteria.setName(name);
+        criteria.setClimate(climate);
+        criteria.setGovernment(government);
+        criteria.setStandardOfLiving(standardOfLiving);
+        criteria.setGovernorName(governorName);
+
+        Cursor position = keysetPaginationHandler.createCursor(cursor, sortBy, sortDir);
+        return cityFilterProcessor.scroll(criteria, position, size);
     }
 
     @Transactional(readOnly = true)
     public CityDTO getCityById(Long id) {
-        City city = cityRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("City не найден"));
-        return entityMapper.toCityDTO(city);
+        return dtoCacheHandler.getCity(id, key -> entityMapper.toCityDTO(cityRepository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("City не найден"))));
     }
 
     @Transactional
@@ -64,41 +114,112 @@ public class CityService {
         Human savedHuman = humanService
                 .createOrUpdateHumanForCity(cityDTO.getGovernor());
 
-        City city = entityMapper.toCityEntity(cityDTO, savedCoordinates, savedHuman);
+        return entityMapper.toCityDTO(createCity(cityDTO, savedCoordinates, savedHuman));
+    }
+
+    @Transactional
+    public City createCity(CityDTO cityDTO, Coordinates coordinates, Human governor) {
+        City city = entityMapper.toCityEntity(cityDTO, coordinates, governor);
 
         city.setCreatedBy(userService.getCurrentUser());
         city.setCreationDate(LocalDate.now());
 
         City savedCity = cityRepository.save(city);
         auditService.auditCity(savedCity, AuditOperation.CREATE);
+        cityAggregateHandler.add(CityContribution.of(savedCity));
+        largestCityHandler.cityChanged(savedCity);
+        spatialIndexHandler.cityChanged(savedCity);
 
-        return entityMapper.toCityDTO(savedCity);
+        return savedCity;
     }
 
     @Transactional
     public CityDTO updateCity(Long id, CityDTO cityDTO) {
+        City existingCity = findModifiableCity(id);
+        return entityMapper.toCityDTO(applyUpdate(existingCity, cityDTO));
+    }
+
+    /**
+     * Applies a partial JSON body on top of the stored city; absent fields, including those of the
+     * nested coordinates and governor, keep their current values.
+     */
+    @Transactional
+    public CityDTO patchCity(Long id, JsonNode patch) {
+        City existingCity = findModifiableCity(id);
+        CityDTO cityDTO = entityMapper.toCityDTO(existingCity);
+        // a nested object naming another id replaces the current one instead of being merged into it
+        if (!isMergeable(patch.get("coordinates"), cityDTO.getCoordinates().getId())) {
+            cityDTO.setCoordinates(null);
+        }
+        if (!isMergeable(patch.get("governor"), cityDTO.getGovernor().getId())) {
+            cityDTO.setGovernor(null);
+        }
+        try {
+            objectMapper.readerForUpdating(cityDTO).readValue(patch);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректное тело запроса: " + e.getMessage());
+        }
+        cityDTO.setId(existingCity.getId());
+
+        List<String> errors = new ArrayList<>();
+        validator.validate(cityDTO).forEach(violation ->
+                errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+        if (cityDTO.getCoordinates() != null && !CoordinatesDTO.isReference(cityDTO.getCoordinates())) {
+            validator.validate(cityDTO.getCoordinates()).forEach(violation ->
+                    errors.add("coordinates." + violation.getPropertyPath() + ": " + violation.getMessage()));
+        }
+        if (cityDTO.getGovernor() == null) {
+            errors.add("governor: обязательное поле");
+        } else if (!HumanDTO.isReference(cityDTO.getGovernor())) {
+            validator.validate(cityDTO.getGovernor()).forEach(violation ->
+                    errors.add("governor." + violation.getPropertyPath() + ": " + violation.getMessage()));
+        }
+        if (!errors.isEmpty()) {
+            errors.sort(null);
+            throw new IllegalArgumentException("Валидация не прошла: " + String.join("; ", errors));
+        }
+
+        return entityMapper.toCityDTO(applyUpdate(existingCity, cityDTO));
+    }
+
+    private static boolean isMergeable(JsonNode nested, Long currentId) {
+        if (nested == null || !nested.isObject() || !nested.has("id")) {
+            return true;
+        }
+        return !nested.get("id").isNull() && nested.get("id").asLong() == currentId;
+    }
+
+    private City findModifiableCity(Long id) {
         City existingCity = cityRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("City не найден"));
 
         if (!userService.canModifyCity(existingCity)) {
             throw new SecurityException("У вас нет разрешения на изменение этого City");
         }
+        return existingCity;
+    }
 
+    private City applyUpdate(City existingCity, CityDTO cityDTO) {
+        CityContribution previous = CityContribution.of(existingCity);
         Coordinates savedCoordinates = coordinatesService
                 .createOrUpdateCoordinatesForCity(cityDTO.getCoordinates());
         Human savedHuman = humanService
                 .createOrUpdateHumanForCity(cityDTO.getGovernor());
+        // the cached DTO embeds the children, which may have changed even if the city did not
+        dtoCacheHandler.evictCity(existingCity.getId());
 
-        City updatedCity = entityMapper.toCityEntity(cityDTO, savedCoordinates, savedHuman);
-
-        updatedCity.setId(existingCity.getId()); // id – const
-        updatedCity.setCreatedBy(existingCity.getCreatedBy()); // creator – const
-        updatedCity.setCreationDate(existingCity.getCreationDate()); // // creation date – const
+        // id, creator and creation date are never copied; dirty checking writes only changed columns
+        if (!entityMapper.updateCityEntity(existingCity, cityDTO, savedCoordinates, savedHuman)) {
+            return existingCity;
+        }
 
-        City savedCity = cityRepository.save(updatedCity);
-        auditService.auditCity(savedCity, AuditOperation.UPDATE);
+        auditService.auditCity(existingCity, AuditOperation.UPDATE);
+        cityAggregateHandler.subtract(previous);
+        cityAggregateHandler.add(CityContribution.of(existingCity));
+        largestCityHandler.cityChanged(existingCity);
+        spatialIndexHandler.cityChanged(existingCity);
 
-        return entityMapper.toCityDTO(savedCity);
+        return existingCity;
     }
 
     @Transactional
@@ -113,6 +234,10 @@ public class CityService {
         auditService.deleteCityAuditEntries(city.getId());
 
         cityRepository.delete(city);
+        cityAggregateHandler.subtract(CityContribution.of(city));
+        largestCityHandler.cityRemoved(city.getId());
+        spatialIndexHandler.cityRemoved(city.getId());
+        dtoCacheHandler.evictCity(city.getId());
     }
 
     @Transactional
@@ -128,45 +253,74 @@ public class CityService {
         auditService.deleteCityAuditEntries(city.getId());
 
         cityRepository.delete(city);
+        cityAggregateHandler.subtract(CityContribution.of(city));
+        largestCityHandler.cityRemoved(city.getId());
+        spatialIndexHandler.cityRemoved(city.getId());
+        dtoCacheHandler.evictCity(city.getId());
     }
 
     @Transactional(readOnly = true)
     public Long calculateTotalMetersAboveSeaLevel() {
-        return cityRepository.sumMetersAboveSeaLevel();
+        return cityAggregateHandler.sumMetersAboveSeaLevel();
     }
 
     @Transactional(readOnly = true)
     public Long countCitiesByClimate(Climate climate) {
-        return (long) cityRepository.findByClimateGreaterThan(climate).size();
+        return cityAggregateHandler.countClimateGreaterThan(climate);
     }
 
-    @Transactional(readOnly = true)
     public double calculateRouteToCityWithLargestArea() {
-        City cityWithLargestArea = cityRepository.findTopByOrderByAreaDesc();
-        if (cityWithLargestArea != null) {
-            return calculateDistanceService.calculate(0,
-                                                      0,
-                                                      0,
-                                                      cityWithLargestArea.getCoordinates().getX(),
-                                                      cityWithLargestArea.getCoordinates().getY(),
-                                                      0);
-        } else {
-            throw new EntityNotFoundException("No cities found");
+        return calculateRouteToCityWithLargestAreaFromUser(0, 0, 0);
+    }
+
+    public double calculateRouteToCityWithLargestAreaFromUser(double userX, double userY, double userZ) {
+        CityLocation cityWithLargestArea = largestCityHandler.findLargest()
+                .orElseThrow(() -> new EntityNotFoundException("No cities found"));
+        return calculateDistanceService.calculate(userX,
+                                                  userY,
+                                                  userZ,
+                                                  cityWithLargestArea.x(),
+                                                  cityWithLargestArea.y(),
+                                                  0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CityDistanceDTO> findNearestCities(double x, double y, double z, int k,
+                                                   Climate climate, Government government) {
+        validatePoint(x, y, z);
+        if (k < 1 || k > MAX_SPATIAL_RESULTS) {
+            throw new IllegalArgumentException("Количество городов должно быть от 1 до " + MAX_SPATIAL_RESULTS);
         }
+        return toCityDistances(spatialIndexHandler.findNearest(x, y, z, k, climate, government));
     }
 
     @Transactional(readOnly = true)
-    public double calculateRouteToCityWithLargestAreaFromUser(double userX, double userY, double userZ) {
-        City cityWithLargestArea = cityRepository.findTopByOrderByAreaDesc();
-        if (cityWithLargestArea != null) {
-            return calculateDistanceService.calculate(userX,
-                                                      userY,
-                                                      userZ,
-                                                      cityWithLargestArea.getCoordinates().getX(),
-                                                      cityWithLargestArea.getCoordinates().getY(),
-                                                      0);
-        } else {
-            throw new EntityNotFoundException("No cities found");
+    public List<CityDistanceDTO> findCitiesWithinRadius(double x, double y, double z, double radius, int limit,
+                                                        Climate climate, Government government) {
+        validatePoint(x, y, z);
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Радиус не может быть отрицательным");
         }
+        if (limit < 1 || limit > MAX_SPATIAL_RESULTS) {
+            throw new IllegalArgumentException("Количество городов должно быть от 1 до " + MAX_SPATIAL_RESULTS);
+        }
+        return toCityDistances(spatialIndexHandler.findWithinRadius(x, y, z, radius, limit, climate, government));
+    }
+
+    private static void validatePoint(double x, double y, double z) {
+        if (Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(z)) {
+            throw new IllegalArgumentException("Координаты не должны содержать NaN");
+        }
+    }
+
+    private List<CityDistanceDTO> toCityDistances(List<SpatialMatch> matches) {
+        // one query for the whole result; cities deleted since the index was read are dropped
+        Map<Long, City> cities = cityRepository.findAllById(matches.stream().map(SpatialMatch::cityId).toList())
+                .stream()
+                .collect(Collectors.toMap(City::getId, Function.identity()));
+        return matches.stream()
+                .filter(match -> cities.containsKey(match.cityId()))
+                .map(match -> new CityDistanceDTO(entityMapper.toCityDTO(cities.get(match.cityId())), match.distance()))
+                .toList();
     }
 }
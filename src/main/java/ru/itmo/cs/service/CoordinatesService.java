@@ -1,8 +1,9 @@
 package ru.itmo.cs.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
@@ -12,7 +13,15 @@ import ru.itmo.cs.exception.EntityDeletionException;
 import ru.itmo.cs.exception.ResourceNotFoundException;
 import ru.itmo.cs.repository.CoordinatesRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
+import ru.itmo.cs.util.pagination.KeysetPaginationHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
 
 @Service
 public class CoordinatesService {
@@ -21,6 +30,11 @@ public class CoordinatesService {
     private AuditService auditService;
     private UserService userService;
     private PaginationHandler paginationHandler;
+    private KeysetPaginationHandler keysetPaginationHandler;
+    private CountHandler countHandler;
+    private DtoCacheHandler dtoCacheHandler;
+    private LargestCityHandler largestCityHandler;
+    private SpatialIndexHandler spatialIndexHandler;
 
     @Autowired
     public void setCoordinatesRepository(CoordinatesRepository coordinatesRepository) {
@@ -42,22 +56,61 @@ public class CoordinatesService {
         this.paginationHandler = paginationHandler;
     }
 
+    @Autowired
+    public void setKeysetPaginationHandler(KeysetPaginationHandler keysetPaginationHandler) {
+        this.keysetPaginationHandler = keysetPaginationHandler;
+    }
+
+    @Autowired
+    public void setCountHandler(CountHandler countHandler) {
+        this.countHandler = countHandler;
+    }
+
+    @Autowired
+    public void setDtoCacheHandler(DtoCacheHandler dtoCacheHandler) {
+        this.dtoCacheHandler = dtoCacheHandler;
+    }
+
+    @Autowired
+    public void setLargestCityHandler(LargestCityHandler largestCityHandler) {
+        this.largestCityHandler = largestCityHandler;
+    }
+
+    @Autowired
+    public void setSpatialIndexHandler(SpatialIndexHandler spatialIndexHandler) {
+        this.spatialIndexHandler = spatialIndexHandler;
+    }
+
     @Autowired
     public void setUserService(UserService userService) {
         this.userService = userService;
     }
 
     @Transactional(readOnly = true)
-    public Page<CoordinatesDTO> getAllCoordinates(int page, int size, String sortBy, String sortDir) {
+    public Slice<CoordinatesDTO> getAllCoordinates(int page, int size, String sortBy, String sortDir,
+                                                   CountMode countMode) {
         Pageable pageable = paginationHandler.createPageable(page, size, sortBy, sortDir);
-        return coordinatesRepository.findAll(pageable).map(entityMapper::toCoordinatesDTO);
+        return countHandler.paginate(countMode, "coordinates", pageable,
+                        coordinatesRepository::findAll,
+                        coordinatesRepository::findSliceBy,
+                        coordinatesRepository::count)
+                .map(entityMapper::toCoordinatesDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<CoordinatesDTO> scrollCoordinates(String cursor, int size, String sortBy, String sortDir) {
+        Cursor position = keysetPaginationHandler.createCursor(cursor, sortBy, sortDir);
+        Specification<Coordinates> specification = keysetPaginationHandler.createSpecification(position);
+        return keysetPaginationHandler
+                .createPage(coordinatesRepository.findBy(specification, query -> query.project(CoordinatesRepository.DETAILS_PATHS).limit(size + 1).all()),
+                        size, position)
+                .map(entityMapper::toCoordinatesDTO);
     }
 
     @Transactional(readOnly = true)
     public CoordinatesDTO getCoordinatesById(Long id) {
-        Coordinates coordinates = coordinatesRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Coordinates не найден"));
-        return entityMapper.toCoordinatesDTO(coordinates);
+        return dtoCacheHandler.getCoordinates(id, key -> entityMapper.toCoordinatesDTO(coordinatesRepository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Coordinates не найден"))));
     }
 
     @Transactional
@@ -80,22 +133,34 @@ public class CoordinatesService {
         Coordinates savedCoordinates = coordinatesRepository.save(coordinates);
 
         auditService.auditCoordinates(savedCoordinates, AuditOperation.UPDATE);
+        dtoCacheHandler.evictCoordinates(savedCoordinates.getId());
+        largestCityHandler.coordinatesChanged(savedCoordinates);
+        spatialIndexHandler.coordinatesChanged(savedCoordinates);
 
         return entityMapper.toCoordinatesDTO(savedCoordinates);
     }
 
     @Transactional
     public Coordinates createOrUpdateCoordinatesForCity(CoordinatesDTO coordinatesDTO) {
+        if (CoordinatesDTO.isReference(coordinatesDTO)) {
+            // no read, write or audit; the foreign key rejects an id that does not exist
+            return coordinatesRepository.getReferenceById(coordinatesDTO.getId());
+        }
         // Determining whether to create a new object or update an existing one
         if (coordinatesDTO.getId() != null) {
             Coordinates existingCoordinates = coordinatesRepository.findById(coordinatesDTO.getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Coordinates не найден"));
 
-            existingCoordinates.setX(coordinatesDTO.getX());
-            existingCoordinates.setY(coordinatesDTO.getY());
+            // unchanged coordinates are only linked, without a write or an audit row
+            if (!entityMapper.updateCoordinatesEntity(existingCoordinates, coordinatesDTO)) {
+                return existingCoordinates;
+            }
 
             Coordinates savedCoordinates = coordinatesRepository.save(existingCoordinates);
             auditService.auditCoordinates(savedCoordinates, AuditOperation.UPDATE);
+            dtoCacheHandler.evictCoordinates(savedCoordinates.getId());
+            largestCityHandler.coordinatesChanged(savedCoordinates);
+            spatialIndexHandler.coordinatesChanged(savedCoordinates);
             return savedCoordinates;
         } else {
             Coordinates coordinates = entityMapper.toCoordinatesEntity(coordinatesDTO);
@@ -120,5 +185,7 @@ public class CoordinatesService {
         auditService.deleteCoordinatesAuditEntries(coordinates.getId());
 
         coordinatesRepository.delete(coordinates);
+        dtoCacheHandler.evictCoordinates(coordinates.getId());
+        largestCityHandler.coordinatesRemoved(coordinates.getId());
     }
 }
\ No newline at end of file
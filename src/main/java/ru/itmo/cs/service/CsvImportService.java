@@ -0,0 +1,321 @@
+package ru.itmo.cs.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import ru.itmo.cs.dto.CsvImportReportDTO;
+import ru.itmo.cs.dto.ImportResultDTO;
+import ru.itmo.cs.dto.ImportStatus;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
+import ru.itmo.cs.dto.human.HumanDTO;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.entity.enums.StandardOfLiving;
+import ru.itmo.cs.exception.TooManyRequestsException;
+import ru.itmo.cs.util.csv.CsvFormat;
+import ru.itmo.cs.util.csv.CsvImportType;
+import ru.itmo.cs.util.csv.CsvRecordReader;
+import ru.itmo.cs.util.csv.CsvRow;
+import ru.itmo.cs.util.imports.ImportChunkHandler;
+import ru.itmo.cs.util.imports.ImportRow;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CsvImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final RawRecord END_OF_FILE = new RawRecord(-1, null);
+    private static final ImportRow<Object> END_OF_ROWS = ImportRow.accepted(-1, null);
+
+    private final CityImportService cityImportService;
+    private final CoordinatesService coordinatesService;
+    private final HumanService humanService;
+    private final ImportChunkHandler importChunkHandler;
+
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${import.csv.workers:4}")
+    private int workers;
+
+    @Value("${import.csv.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${import.csv.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${import.csv.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Semaphore imports;
+
+    /**
+     * One pool for all imports, sized so that every admitted import gets its reader and parsers
+     * running at once; a stage waiting in the queue behind another import could stall its pipeline.
+     */
+    @PostConstruct
+    public void start() {
+        int poolSize = maxConcurrent * (workers + 1);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize), runnable -> {
+                    Thread thread = new Thread(runnable, "csv-import-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        imports = new Semaphore(maxConcurrent);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public CsvImportReportDTO importCsv(CsvImportType type, MultipartFile file) throws IOException {
+        Path path = Files.createTempFile("csv-import-", ".csv");
+        try {
+            file.transferTo(path);
+            return importCsv(type, path);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Runs the file through reader, parser and writer stages joined by bounded queues, so a slow
+     * database holds back parsing and reading instead of filling the heap. The writer is the
+     * calling thread and keeps its security context for the audit and ownership fields.
+     */
+    @SuppressWarnings("unchecked")
+    public CsvImportReportDTO importCsv(CsvImportType type, Path path) throws IOException {
+        CsvFormat<Object> format = (CsvFormat<Object>) format(type);
+        if (!imports.tryAcquire()) {
+            throw new TooManyRequestsException("Слишком много одновременных импортов CSV, повторите позже", retryAfterSeconds);
+        }
+        long started = System.nanoTime();
+        List<Future<?>> stages = new ArrayList<>(workers + 1);
+        try (CsvRecordReader reader = new CsvRecordReader(path)) {
+            Map<String, Integer> columns = header(reader, format);
+            BlockingQueue<RawRecord> records = new ArrayBlockingQueue<>(queueCapacity);
+            BlockingQueue<ImportRow<Object>> rows = new ArrayBlockingQueue<>(queueCapacity);
+
+            Future<?> reading = executor.submit(() -> read(reader, records));
+            stages.add(reading);
+            for (int i = 0; i < workers; i++) {
+                stages.add(executor.submit(() -> parse(format, columns, records, rows)));
+            }
+            Report report = write(format, rows);
+            reading.get();
+
+            long elapsedNanos = System.nanoTime() - started;
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+            double rowsPerSecond = report.rows * 1e9 / Math.max(elapsedNanos, 1);
+            log.info("CSV import of {} finished: {} rows, {} imported, {} rejected, {} failed, {} rows/s",
+                    type, report.rows, report.imported, report.rejected, report.failed, Math.round(rowsPerSecond));
+            return new CsvImportReportDTO(type, report.rows, report.imported, report.rejected, report.failed,
+                    elapsedMs, rowsPerSecond, report.errors);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Импорт CSV прерван", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Не удалось прочитать CSV", e.getCause());
+        } finally {
+            // the pool is shared, so only this import's stages are stopped
+            stages.forEach(stage -> stage.cancel(true));
+            imports.release();
+        }
+    }
+
+    private Map<String, Integer> header(CsvRecordReader reader, CsvFormat<?> format) throws IOException {
+        String header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV-файл пуст");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvRecordReader.split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        List<String> missing = format.columns().stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("В CSV отсутствуют колонки: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private Void read(CsvRecordReader reader, BlockingQueue<RawRecord> records) throws IOException, InterruptedException {
+        try {
+            for (long line = reader.getLineNumber() + 1; ; line = reader.getLineNumber() + 1) {
+                String record = reader.next();
+                if (record == null) {
+                    break;
+                }
+                if (!record.isBlank()) {
+                    records.put(new RawRecord(line, record));
+                }
+            }
+        } finally {
+            // every parser gets its own end marker, even when reading failed halfway
+            for (int i = 0; i < workers; i++) {
+                records.put(END_OF_FILE);
+            }
+        }
+        return null;
+    }
+
+    private void parse(CsvFormat<Object> format, Map<String, Integer> columns,
+                       BlockingQueue<RawRecord> records, BlockingQueue<ImportRow<Object>> rows) {
+        try {
+            try {
+                for (RawRecord record = records.take(); record != END_OF_FILE; record = records.take()) {
+                    rows.put(toRow(format, columns, record));
+                }
+            } finally {
+                rows.put(END_OF_ROWS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ImportRow<Object> toRow(CsvFormat<Object> format, Map<String, Integer> columns, RawRecord record) {
+        try {
+            Object value = format.parser().apply(new CsvRow(columns, CsvRecordReader.split(record.text())));
+            return format.validator().apply(record.line(), value);
+        } catch (RuntimeException e) {
+            return ImportRow.rejected(ImportResultDTO.rejected(record.line(), e.getMessage()));
+        }
+    }
+
+    private Report write(CsvFormat<Object> format, BlockingQueue<ImportRow<Object>> rows) throws InterruptedException {
+        Report report = new Report();
+        List<ImportRow<Object>> chunk = new ArrayList<>(chunkSize);
+        for (int finished = 0; finished < workers; ) {
+            ImportRow<Object> row = rows.take();
+            if (row == END_OF_ROWS) {
+                finished++;
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                report.add(importChunkHandler.persist(chunk, format.writer()));
+                chunk.clear();
+            }
+        }
+        report.add(importChunkHandler.persist(chunk, format.writer()));
+        return report;
+    }
+
+    private CsvFormat<?> format(CsvImportType type) {
+        return switch (type) {
+            case COORDINATES -> new CsvFormat<>(List.of("x", "y"),
+                    this::toCoordinates, this::validate, this::saveCoordinates);
+            case HUMANS -> new CsvFormat<>(List.of("name", "age", "height", "birthday"),
+                    this::toHuman, this::validate, this::saveHumans);
+            case CITIES -> new CsvFormat<>(List.of("name", "area", "population", "climate", "government",
+                    "capital", "metersAboveSeaLevel", "standardOfLiving", "establishmentDate",
+                    "coordinates.x", "coordinates.y",
+                    "governor.name", "governor.age", "governor.height", "governor.birthday"),
+                    this::toCity, cityImportService::validate, cityImportService::saveCities);
+        };
+    }
+
+    private CoordinatesDTO toCoordinates(CsvRow row) {
+        return toCoordinates(row, "");
+    }
+
+    private CoordinatesDTO toCoordinates(CsvRow row, String prefix) {
+        return new CoordinatesDTO(null, row.getLong(prefix + "x"), row.getDouble(prefix + "y"), null);
+    }
+
+    private HumanDTO toHuman(CsvRow row) {
+        return toHuman(row, "");
+    }
+
+    private HumanDTO toHuman(CsvRow row, String prefix) {
+        return new HumanDTO(null, row.getString(prefix + "name"), row.getInt(prefix + "age"),
+                row.getInt(prefix + "height"), row.getZonedDateTime(prefix + "birthday"), null);
+    }
+
+    private CityDTO toCity(CsvRow row) {
+        return new CityDTO(null, row.getString("name"), row.getDouble("area"), row.getLong("population"),
+                row.getEnum("climate", Climate.class), row.getEnum("government", Government.class),
+                toCoordinates(row, "coordinates."), row.getBoolean("capital"), row.getLong("metersAboveSeaLevel"),
+                row.getEnum("standardOfLiving", StandardOfLiving.class), row.getLocalDateTime("establishmentDate"),
+                toHuman(row, "governor."), null, null);
+    }
+
+    private <T> ImportRow<T> validate(long index, T value) {
+        List<String> errors = new ArrayList<>(importChunkHandler.violations("", value));
+        if (errors.isEmpty()) {
+            return ImportRow.accepted(index, value);
+        }
+        errors.sort(null);
+        return ImportRow.rejected(ImportResultDTO.rejected(index, String.join("; ", errors)));
+    }
+
+    private List<ImportResultDTO> saveCoordinates(List<ImportRow<CoordinatesDTO>> rows) {
+        return rows.stream()
+                .map(row -> row.rejection() != null ? row.rejection() : ImportResultDTO.created(row.index(),
+                        coordinatesService.createOrUpdateCoordinatesForCity(row.value()).getId()))
+                .toList();
+    }
+
+    private List<ImportResultDTO> saveHumans(List<ImportRow<HumanDTO>> rows) {
+        return rows.stream()
+                .map(row -> row.rejection() != null ? row.rejection() : ImportResultDTO.created(row.index(),
+                        humanService.createOrUpdateHumanForCity(row.value()).getId()))
+                .toList();
+    }
+
+    private record RawRecord(long line, String text) {
+    }
+
+    private static class Report {
+        private long rows;
+        private long imported;
+        private long rejected;
+        private long failed;
+        private final List<String> errors = new ArrayList<>();
+
+        private void add(List<ImportResultDTO> results) {
+            for (ImportResultDTO result : results) {
+                rows++;
+                if (result.getStatus() == ImportStatus.CREATED) {
+                    imported++;
+                    continue;
+                }
+                if (result.getStatus() == ImportStatus.REJECTED) {
+                    rejected++;
+                } else {
+                    failed++;
+                }
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Строка " + result.getIndex() + ": " + result.getError());
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package ru.itmo.cs.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.itmo.cs.dto.human.HumanDTO;
@@ -13,7 +13,13 @@ import ru.itmo.cs.exception.EntityDeletionException;
 import ru.itmo.cs.exception.ResourceNotFoundException;
 import ru.itmo.cs.repository.HumanRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
 import ru.itmo.cs.util.filter.FilterProcessor;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
+import ru.itmo.cs.util.pagination.KeysetPaginationHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
 
 @Service
@@ -25,21 +31,36 @@ public class HumanService {
     private final EntityMapper entityMapper;
     private final FilterProcessor<HumanDTO, HumanFilterCriteria> humanFilterProcessor;
     private final PaginationHandler paginationHandler;
+    private final KeysetPaginationHandler keysetPaginationHandler;
+    private final CountHandler countHandler;
+    private final DtoCacheHandler dtoCacheHandler;
 
     @Transactional(readOnly = true)
-    public Page<HumanDTO> getAllHumans(String name, int page, int size, String sortBy, String sortDir) {
+    public Slice<HumanDTO> getAllHumans(String name, int page, int size, String sortBy, String sortDir,
+                                        CountMode countMode) {
         HumanFilterCriteria criteria = new HumanFilterCriteria();
         criteria.setName(name);
 
         Pageable pageable = paginationHandler.createPageable(page, size, sortBy, sortDir);
-        return humanFilterProcessor.filter(criteria, pageable);
+        return countHandler.paginate(countMode, "human:" + criteria, pageable,
+                p -> humanFilterProcessor.filter(criteria, p),
+                p -> humanFilterProcessor.filterSlice(criteria, p),
+                () -> humanFilterProcessor.count(criteria));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<HumanDTO> scrollHumans(String name, String cursor, int size, String sortBy, String sortDir) {
+        HumanFilterCriteria criteria = new HumanFilterCriteria();
+        criteria.setName(name);
+
+        Cursor position = keysetPaginationHandler.createCursor(cursor, sortBy, sortDir);
+        return humanFilterProcessor.scroll(criteria, position, size);
     }
 
     @Transactional(readOnly = true)
     public HumanDTO getHumanById(Long id) {
-        Human human = humanRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Human не найден"));
-        return entityMapper.toHumanDTO(human);
+        return dtoCacheHandler.getHuman(id, key -> entityMapper.toHumanDTO(humanRepository.findById(key)
+                .orElseThrow(() -> new ResourceNotFoundException("Human не найден"))));
     }
 
     @Transactional
@@ -63,23 +84,29 @@ public class HumanService {
 
         Human savedHuman = humanRepository.save(human);
         auditService.auditHuman(savedHuman, AuditOperation.UPDATE);
+        dtoCacheHandler.evictHuman(savedHuman.getId());
         return entityMapper.toHumanDTO(savedHuman);
     }
 
     @Transactional
     public Human createOrUpdateHumanForCity(HumanDTO humanDTO) {
+        if (HumanDTO.isReference(humanDTO)) {
+            // no read, write or audit; the foreign key rejects an id that does not exist
+            return humanRepository.getReferenceById(humanDTO.getId());
+        }
         // Determining whether to create a new object or update an existing one
         if (humanDTO.getId() != null) {
             Human existingHuman = humanRepository.findById(humanDTO.getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Human не найден"));
 
-            existingHuman.setName(humanDTO.getName());
-            existingHuman.setAge(humanDTO.getAge());
-            existingHuman.setHeight(humanDTO.getHeight());
-            existingHuman.setBirthday(humanDTO.getBirthday());
+            // an unchanged governor is only linked, without a write or an audit row
+            if (!entityMapper.updateHumanEntity(existingHuman, humanDTO)) {
+                return existingHuman;
+            }
 
             Human savedHuman = humanRepository.save(existingHuman);
             auditService.auditHuman(savedHuman, AuditOperation.UPDATE);
+            dtoCacheHandler.evictHuman(savedHuman.getId());
             return savedHuman;
         } else {
             Human human = entityMapper.toHumanEntity(humanDTO);
@@ -103,5 +130,6 @@ public class HumanService {
         auditService.deleteHumanAuditEntries(human.getId());
 
         humanRepository.delete(human);
+        dtoCacheHandler.evictHuman(human.getId());
     }
 }
\ No newline at end of file
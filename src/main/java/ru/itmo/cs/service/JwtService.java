@@ -2,16 +2,22 @@ package ru.itmo.cs.service;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import ru.itmo.cs.entity.User;
+import ru.itmo.cs.util.cache.TokenVersionHandler;
+import ru.itmo.cs.util.cache.VerifiedTokenCache;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
@@ -23,16 +29,52 @@ import java.util.function.Function;
 @Slf4j
 public class JwtService {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String TOKEN_VERSION_CLAIM = "tokenVersion";
+
     @Value("${spring.security.jwt.secret-key}")
     private String secretKey;
 
     @Value("${spring.security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    @Value("${spring.security.jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Getter(AccessLevel.NONE)
+    private SecretKey signInKey;
+
+    @Getter(AccessLevel.NONE)
+    private JwtParser parser;
+
+    @Getter(AccessLevel.NONE)
+    private VerifiedTokenCache verifiedTokens;
+
+    @Getter(AccessLevel.NONE)
+    private TokenVersionHandler tokenVersionHandler;
+
+    @Autowired
+    public void setTokenVersionHandler(TokenVersionHandler tokenVersionHandler) {
+        this.tokenVersionHandler = tokenVersionHandler;
+    }
+
+    // the key and parser are immutable, so they are built once instead of on every token
+    @PostConstruct
+    public void init() {
+        signInKey = decodeSignInKey();
+        parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        verifiedTokens = new VerifiedTokenCache(cacheMaxSize);
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public Claims extractAllClaims(String token) {
+        return verifiedTokens.get(token, this::parseClaims);
+    }
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
@@ -41,8 +83,9 @@ public class JwtService {
     public String generateToken(User userDetails) {
         log.info("generateToken() for user: {}", userDetails.getUsername());
         return generateToken(Map.of(
-                "role", userDetails.getRole(),
-                "userId", userDetails.getId()
+                ROLE_CLAIM, userDetails.getRole(),
+                USER_ID_CLAIM, userDetails.getId(),
+                TOKEN_VERSION_CLAIM, tokenVersionHandler.versionOf(userDetails)
         ), userDetails);
     }
 
@@ -63,7 +106,7 @@ public class JwtService {
                     .setSubject(userDetails.getUsername())
                     .setIssuedAt(new Date(System.currentTimeMillis()))
                     .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                    .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                    .signWith(signInKey, SignatureAlgorithm.HS256)
                     .compact();
         } catch (JwtException e) {
             log.error("Error build JWT: " + e.getMessage(), e);
@@ -85,18 +128,10 @@ public class JwtService {
     }
 
 
-    private Claims extractAllClaims(final String token) {
-        log.info("extractAllClaims()");
+    private Claims parseClaims(String token) {
+        log.debug("parseClaims()");
         try {
-            Claims claims = Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            log.info("Extracted claims: {}", claims);
-            return claims;
+            return parser.parseClaimsJws(token).getBody();
         } catch (JwtException e) {
             log.error("Error parsing JWT: " + e.getMessage(), e);
             throw e;
@@ -104,9 +139,7 @@ public class JwtService {
     }
 
 
-    private SecretKey getSignInKey() {
-        log.info("getSignInKey()");
-
+    private SecretKey decodeSignInKey() {
         try {
             byte[] keyBytes = Decoders.BASE64.decode(secretKey);
             return Keys.hmacShaKeyFor(keyBytes);
@@ -116,4 +149,3 @@ public class JwtService {
         }
     }
 }
-
@@ -12,6 +12,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import ru.itmo.cs.adminStatus.AdminRequestStatusHandler;
 import ru.itmo.cs.dto.auth.*;
 import ru.itmo.cs.entity.City;
@@ -21,6 +24,7 @@ import ru.itmo.cs.entity.enums.UserRole;
 import ru.itmo.cs.exception.UsernameAlreadyExistsException;
 import ru.itmo.cs.repository.UserRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.cache.UserDetailsCacheHandler;
 
 import java.util.List;
 import java.util.Map;
@@ -30,6 +34,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserService implements UserDetailsService {
 
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".currentUser";
+
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
     private AuthenticationManager authenticationManager;
@@ -37,6 +43,8 @@ public class UserService implements UserDetailsService {
     private Map<String, AdminRequestStatusHandler> statusHandlers;
 
     private JwtService jwtService;
+    private UserDetailsCacheHandler userDetailsCacheHandler;
+    private TransactionTemplate transactionTemplate;
 
     @Autowired
     public void setAuthenticationManager(AuthenticationManager authenticationManager) {
@@ -68,7 +76,17 @@ public class UserService implements UserDetailsService {
         this.jwtService = jwtService;
     }
 
-    @Transactional
+    @Autowired
+    public void setUserDetailsCacheHandler(UserDetailsCacheHandler userDetailsCacheHandler) {
+        this.userDetailsCacheHandler = userDetailsCacheHandler;
+    }
+
+    @Autowired
+    public void setTransactionTemplate(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // password hashing waits on a shared pool, so it must not hold a database connection meanwhile
     public User registerUser(UserRegistrationDTO registrationDTO) {
         if (userRepository.findByUsername(registrationDTO.getUsername()).isPresent()) {
             throw new IllegalArgumentException("Пользователь с таким username уже существует");
@@ -83,7 +101,6 @@ public class UserService implements UserDetailsService {
         return userRepository.save(newUser);
     }
 
-    @Transactional
     public User login(UserLoginDTO input) {
         try {
             authenticationManager.authenticate(
@@ -101,8 +118,8 @@ public class UserService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
+        return userDetailsCacheHandler.getUser(username, name -> userRepository.findByUsername(name)
+                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + name)));
     }
 
     public boolean doesAdminExist() {
@@ -176,13 +193,23 @@ public class UserService implements UserDetailsService {
         userRepository.save(user);
     }
 
+    // one create or update asks for the current user from several services, so it is looked up once per request
     @Transactional(readOnly = true)
     public User getCurrentUser() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (principal instanceof UserDetails) {
             String username = ((UserDetails) principal).getUsername();
-            return userRepository.findByUsername(username)
+            RequestAttributes request = RequestContextHolder.getRequestAttributes();
+            if (request != null && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                    instanceof User user && username.equals(user.getUsername())) {
+                return user;
+            }
+            User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
+            if (request != null) {
+                request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+            }
+            return user;
         } else {
             throw new IllegalStateException("Authentication principal не имеет типа UserDetails");
         }
@@ -193,19 +220,28 @@ public class UserService implements UserDetailsService {
         return city.getCreatedBy().equals(currentUser) || currentUser.getRole() == UserRole.ADMIN;
     }
 
-    @Transactional
     public UserUpdateResponseDTO updateCurrentUser(UserUpdateDTO userUpdateDTO) {
+        // hashed before the transaction for the same reason as in registerUser
+        String encodedPassword = userUpdateDTO.getPassword() != null && !userUpdateDTO.getPassword().isBlank()
+                ? passwordEncoder.encode(userUpdateDTO.getPassword())
+                : null;
+        return transactionTemplate.execute(status -> updateCurrentUser(userUpdateDTO, encodedPassword));
+    }
+
+    private UserUpdateResponseDTO updateCurrentUser(UserUpdateDTO userUpdateDTO, String encodedPassword) {
         User currentUser = getCurrentUser();
 
         if (userUpdateDTO.getUsername() != null && !userUpdateDTO.getUsername().isBlank()) {
             if (userRepository.findByUsername(userUpdateDTO.getUsername()).isPresent()) {
                 throw new UsernameAlreadyExistsException("Имя пользователя уже занято.");
             }
+            // the entity listener only sees the new name, so the entry under the old one is dropped here
+            userDetailsCacheHandler.evictUser(currentUser.getUsername());
             currentUser.setUsername(userUpdateDTO.getUsername());
         }
 
-        if (userUpdateDTO.getPassword() != null && !userUpdateDTO.getPassword().isBlank()) {
-            currentUser.setPassword(passwordEncoder.encode(userUpdateDTO.getPassword()));
+        if (encodedPassword != null) {
+            currentUser.setPassword(encodedPassword);
         }
 
         User updatedUser = userRepository.save(currentUser);
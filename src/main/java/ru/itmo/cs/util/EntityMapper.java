@@ -16,6 +16,8 @@ import ru.itmo.cs.service.HumanService;
 import ru.itmo.cs.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Component
 public class EntityMapper {
@@ -120,6 +122,48 @@ public class EntityMapper {
         return coordinates;
     }
 
+    // Переносит в city только отличающиеся значения; возвращает true, если что-то изменилось
+    public boolean updateCityEntity(City city, CityDTO cityDTO, Coordinates coordinates, Human governor) {
+        boolean changed = update(city.getName(), cityDTO.getName(), city::setName);
+        changed |= update(city.getArea(), cityDTO.getArea(), city::setArea);
+        changed |= update(city.getPopulation(), cityDTO.getPopulation(), city::setPopulation);
+        changed |= update(city.getClimate(), cityDTO.getClimate(), city::setClimate);
+        changed |= update(city.getGovernment(), cityDTO.getGovernment(), city::setGovernment);
+        changed |= update(city.getCoordinates(), coordinates, city::setCoordinates);
+        changed |= update(city.getCapital(), cityDTO.getCapital(), city::setCapital);
+        changed |= update(city.getMetersAboveSeaLevel(), cityDTO.getMetersAboveSeaLevel(), city::setMetersAboveSeaLevel);
+        changed |= update(city.getStandardOfLiving(), cityDTO.getStandardOfLiving(), city::setStandardOfLiving);
+        changed |= update(city.getEstablishmentDate(), cityDTO.getEstablishmentDate(), city::setEstablishmentDate);
+        changed |= update(city.getGovernor(), governor, city::setGovernor);
+        return changed;
+    }
+
+    public boolean updateHumanEntity(Human human, HumanDTO humanDTO) {
+        boolean changed = update(human.getName(), humanDTO.getName(), human::setName);
+        changed |= update(human.getAge(), humanDTO.getAge(), human::setAge);
+        changed |= update(human.getHeight(), humanDTO.getHeight(), human::setHeight);
+        // сохраненная зона может отличаться от присланной клиентом для того же момента
+        if (human.getBirthday() == null || humanDTO.getBirthday() == null
+                || !human.getBirthday().isEqual(humanDTO.getBirthday())) {
+            changed |= update(human.getBirthday(), humanDTO.getBirthday(), human::setBirthday);
+        }
+        return changed;
+    }
+
+    public boolean updateCoordinatesEntity(Coordinates coordinates, CoordinatesDTO coordinatesDTO) {
+        boolean changed = update(coordinates.getX(), coordinatesDTO.getX(), coordinates::setX);
+        changed |= update(coordinates.getY(), coordinatesDTO.getY(), coordinates::setY);
+        return changed;
+    }
+
+    private static <T> boolean update(T current, T value, Consumer<T> setter) {
+        if (Objects.equals(current, value)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
 
     public CityAudit toCityAudit(City city, AuditOperation operation) {
         CityAudit cityAudit = new CityAudit();
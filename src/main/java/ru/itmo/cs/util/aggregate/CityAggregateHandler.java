@@ -0,0 +1,11 @@
+package ru.itmo.cs.util.aggregate;
+
+import ru.itmo.cs.entity.enums.Climate;
+
+public interface CityAggregateHandler {
+    void add(CityContribution contribution);
+    void subtract(CityContribution contribution);
+    long sumMetersAboveSeaLevel();
+    long countClimateGreaterThan(Climate climate);
+    void reconcile();
+}
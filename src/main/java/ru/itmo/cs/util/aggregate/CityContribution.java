@@ -0,0 +1,11 @@
+package ru.itmo.cs.util.aggregate;
+
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.enums.Climate;
+
+public record CityContribution(Climate climate, long metersAboveSeaLevel) {
+
+    public static CityContribution of(City city) {
+        return new CityContribution(city.getClimate(), city.getMetersAboveSeaLevel());
+    }
+}
@@ -0,0 +1,4 @@
+package ru.itmo.cs.util.aggregate;
+
+public record CityLocation(Long cityId, double area, long x, double y) {
+}
@@ -0,0 +1,174 @@
+package ru.itmo.cs.util.aggregate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.repository.ClimateTotalsView;
+
+import java.util.Arrays;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultCityAggregateHandler implements CityAggregateHandler {
+
+    private final CityRepository cityRepository;
+
+    // committed totals; deltas of an open transaction are kept aside until it commits
+    private final Totals committed = new Totals();
+    private boolean loaded;
+    private Totals lastDrift;
+
+    @Override
+    public void add(CityContribution contribution) {
+        apply(contribution, 1);
+    }
+
+    @Override
+    public void subtract(CityContribution contribution) {
+        apply(contribution, -1);
+    }
+
+    @Override
+    public long sumMetersAboveSeaLevel() {
+        Totals pending = pending(false);
+        synchronized (committed) {
+            return committed.meters + (pending == null ? 0 : pending.meters);
+        }
+    }
+
+    @Override
+    public long countClimateGreaterThan(Climate climate) {
+        Totals pending = pending(false);
+        long count = 0;
+        synchronized (committed) {
+            for (int ordinal = climate.ordinal() + 1; ordinal < Climate.values().length; ordinal++) {
+                count += committed.cities[ordinal] + (pending == null ? 0 : pending.cities[ordinal]);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${aggregates.reconcile-interval-ms:300000}",
+            fixedDelayString = "${aggregates.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Totals actual = new Totals();
+        for (ClimateTotalsView row : cityRepository.sumByClimate()) {
+            actual.cities[slot(row.getClimate())] += row.getCities();
+            actual.meters += row.getMetersAboveSeaLevel();
+        }
+
+        synchronized (committed) {
+            Totals drift = actual.minus(committed);
+            if (drift.isZero()) {
+                loaded = true;
+                lastDrift = null;
+                return;
+            }
+            // a commit whose delta is not applied yet shows up once; only a repeated drift is real
+            if (!loaded || drift.equals(lastDrift)) {
+                if (loaded) {
+                    log.warn("City aggregates drifted from the table by {}, resetting", drift);
+                }
+                committed.add(drift, 1);
+                loaded = true;
+                lastDrift = null;
+            } else {
+                lastDrift = drift;
+            }
+        }
+    }
+
+    private void apply(CityContribution contribution, int sign) {
+        Totals delta = new Totals();
+        delta.cities[slot(contribution.climate())] = sign;
+        delta.meters = sign * contribution.metersAboveSeaLevel();
+
+        Totals pending = pending(true);
+        if (pending == null) {
+            synchronized (committed) {
+                committed.add(delta, 1);
+            }
+        } else {
+            pending.add(delta, 1);
+        }
+    }
+
+    private Totals pending(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Totals pending = (Totals) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            Totals created = new Totals();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (committed) {
+                        committed.add(created, 1);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DefaultCityAggregateHandler.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private static int slot(Climate climate) {
+        // cities without a climate are counted in the last slot and never match a climate query
+        return climate == null ? Climate.values().length : climate.ordinal();
+    }
+
+    private static class Totals {
+        private final long[] cities = new long[Climate.values().length + 1];
+        private long meters;
+
+        void add(Totals other, int sign) {
+            for (int i = 0; i < cities.length; i++) {
+                cities[i] += sign * other.cities[i];
+            }
+            meters += sign * other.meters;
+        }
+
+        Totals minus(Totals other) {
+            Totals result = new Totals();
+            result.add(this, 1);
+            result.add(other, -1);
+            return result;
+        }
+
+        boolean isZero() {
+            return meters == 0 && Arrays.stream(cities).allMatch(count -> count == 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Totals other && meters == other.meters && Arrays.equals(cities, other.cities);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(cities) + Long.hashCode(meters);
+        }
+
+        @Override
+        public String toString() {
+            return "cities=" + Arrays.toString(cities) + ", meters=" + meters;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.itmo.cs.util.aggregate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.repository.CityLocationView;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Cities ranked by area, kept current by this node's writes. Writes from other nodes or plain SQL are
+ * not seen, so the ranking is also rebuilt from the table on a fixed interval.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultLargestCityHandler implements LargestCityHandler {
+
+    private final CityRepository cityRepository;
+
+    private final Object rebuilding = new Object();
+    private volatile Ranking ranking = new Ranking();
+    // changes applied while a rebuild reads the table, replayed onto the fresh ranking before the swap
+    private List<Consumer<Ranking>> journal;
+
+    @Override
+    public Optional<CityLocation> findLargest() {
+        Ranking current = ranking;
+        // a concurrent write may leave a stale head for a moment; skip anything no longer current
+        for (Ranked ranked : current.byArea) {
+            Point point = ranked.equals(current.cities.get(ranked.cityId()))
+                    ? current.points.get(ranked.coordinatesId())
+                    : null;
+            if (point != null) {
+                return Optional.of(new CityLocation(ranked.cityId(), ranked.area(), point.x(), point.y()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void cityChanged(City city) {
+        Coordinates coordinates = city.getCoordinates();
+        if (coordinates == null) {
+            cityRemoved(city.getId());
+            return;
+        }
+        Ranked ranked = new Ranked(city.getArea(), city.getId(), coordinates.getId());
+        Point point = new Point(coordinates.getX(), coordinates.getY());
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.put(ranked, point)));
+    }
+
+    @Override
+    public void cityRemoved(Long cityId) {
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.remove(cityId)));
+    }
+
+    @Override
+    public void coordinatesChanged(Coordinates coordinates) {
+        Long id = coordinates.getId();
+        Point point = new Point(coordinates.getX(), coordinates.getY());
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.points.put(id, point)));
+    }
+
+    @Override
+    public void coordinatesRemoved(Long coordinatesId) {
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.points.remove(coordinatesId)));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${aggregates.largest-city.rebuild-interval-ms:300000}",
+            fixedDelayString = "${aggregates.largest-city.rebuild-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            // readers keep the old ranking until the new one is complete
+            Ranking fresh = new Ranking();
+            boolean loaded = false;
+            try (Stream<CityLocationView> rows = cityRepository.streamLocations()) {
+                rows.forEach(row -> fresh.put(new Ranked(row.getArea(), row.getId(), row.getCoordinatesId()),
+                        new Point(row.getX(), row.getY())));
+                loaded = true;
+            } finally {
+                synchronized (this) {
+                    if (loaded) {
+                        journal.forEach(change -> change.accept(fresh));
+                        ranking = fresh;
+                    }
+                    journal = null;
+                }
+            }
+            log.info("Largest city tracker rebuilt: {} cities", fresh.cities.size());
+        }
+    }
+
+    private synchronized void apply(Consumer<Ranking> change) {
+        change.accept(ranking);
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private static class Ranking {
+        private final NavigableSet<Ranked> byArea = new ConcurrentSkipListSet<>(
+                Comparator.comparingDouble(Ranked::area).reversed()
+                        .thenComparing(Ranked::cityId)
+                        .thenComparing(Ranked::coordinatesId));
+        private final Map<Long, Ranked> cities = new ConcurrentHashMap<>();
+        // coordinates are shared between cities, so their position is stored once per row
+        private final Map<Long, Point> points = new ConcurrentHashMap<>();
+
+        private void put(Ranked ranked, Point point) {
+            points.put(ranked.coordinatesId(), point);
+            // the new entry goes in before the old one leaves, so the set never looks empty in between
+            byArea.add(ranked);
+            Ranked previous = cities.put(ranked.cityId(), ranked);
+            if (previous != null && !previous.equals(ranked)) {
+                byArea.remove(previous);
+            }
+        }
+
+        private void remove(Long cityId) {
+            Ranked previous = cities.remove(cityId);
+            if (previous != null) {
+                byArea.remove(previous);
+            }
+        }
+    }
+
+    private record Ranked(double area, Long cityId, Long coordinatesId) {
+    }
+
+    private record Point(long x, double y) {
+    }
+}
@@ -0,0 +1,15 @@
+package ru.itmo.cs.util.aggregate;
+
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+
+import java.util.Optional;
+
+public interface LargestCityHandler {
+    Optional<CityLocation> findLargest();
+    void cityChanged(City city);
+    void cityRemoved(Long cityId);
+    void coordinatesChanged(Coordinates coordinates);
+    void coordinatesRemoved(Long coordinatesId);
+    void rebuild();
+}
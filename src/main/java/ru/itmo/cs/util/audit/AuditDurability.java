@@ -0,0 +1,8 @@
+package ru.itmo.cs.util.audit;
+
+public enum AuditDurability {
+    /** Audit rows are inserted in one batch right before the audited transaction commits. */
+    COMMIT,
+    /** Audit rows are queued after commit and inserted by the writer thread within the flush interval. */
+    ASYNC
+}
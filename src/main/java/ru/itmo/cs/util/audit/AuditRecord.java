@@ -0,0 +1,27 @@
+package ru.itmo.cs.util.audit;
+
+import ru.itmo.cs.entity.audit.AuditOperation;
+import ru.itmo.cs.entity.audit.CityAudit;
+import ru.itmo.cs.entity.audit.CoordinatesAudit;
+import ru.itmo.cs.entity.audit.HumanAudit;
+
+import java.time.LocalDateTime;
+
+public record AuditRecord(AuditTarget target, Long entityId, Long userId,
+                          AuditOperation operation, LocalDateTime operationTime) {
+
+    public static AuditRecord of(CityAudit audit) {
+        return new AuditRecord(AuditTarget.CITY, audit.getCity().getId(), audit.getUser().getId(),
+                audit.getOperation(), audit.getOperationTime());
+    }
+
+    public static AuditRecord of(HumanAudit audit) {
+        return new AuditRecord(AuditTarget.HUMAN, audit.getHuman().getId(), audit.getUser().getId(),
+                audit.getOperation(), audit.getOperationTime());
+    }
+
+    public static AuditRecord of(CoordinatesAudit audit) {
+        return new AuditRecord(AuditTarget.COORDINATES, audit.getCoordinates().getId(), audit.getUser().getId(),
+                audit.getOperation(), audit.getOperationTime());
+    }
+}
@@ -0,0 +1,17 @@
+package ru.itmo.cs.util.audit;
+
+import lombok.Getter;
+
+@Getter
+public enum AuditTarget {
+    CITY("city_audit", "city_id", "city_audit_seq"),
+    HUMAN("human_audit", "human_id", "human_audit_seq"),
+    COORDINATES("coordinates_audit", "coordinates_id", "coordinates_audit_seq");
+
+    private final String insertSql;
+
+    AuditTarget(String table, String column, String sequence) {
+        this.insertSql = "INSERT INTO " + table + " (id, " + column + ", user_id, operation, operation_time) " +
+                "VALUES (nextval('" + sequence + "'), ?, ?, ?, ?)";
+    }
+}
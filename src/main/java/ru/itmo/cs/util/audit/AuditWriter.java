@@ -0,0 +1,6 @@
+package ru.itmo.cs.util.audit;
+
+public interface AuditWriter {
+    void write(AuditRecord record);
+    void discard(AuditTarget target, Long entityId);
+}
@@ -0,0 +1,220 @@
+package ru.itmo.cs.util.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+@Component
+@Slf4j
+public class DefaultAuditWriter implements AuditWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final AuditDurability durability;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final BlockingQueue<AuditRecord> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public DefaultAuditWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManager entityManager,
+                              @Value("${audit.writer.mode:COMMIT}") AuditDurability durability,
+                              @Value("${audit.writer.flush-interval-ms:100}") long flushIntervalMs,
+                              @Value("${audit.writer.batch-size:500}") int batchSize,
+                              @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${audit.writer.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManager = entityManager;
+        this.durability = durability;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (durability == AuditDurability.ASYNC) {
+            running = true;
+            writer = new Thread(this::drain, "audit-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        List<AuditRecord> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    @Override
+    public void write(AuditRecord record) {
+        List<AuditRecord> pending = pending(true);
+        if (pending != null) {
+            pending.add(record);
+        } else if (durability == AuditDurability.ASYNC) {
+            enqueue(List.of(record));
+        } else {
+            insert(List.of(record));
+        }
+    }
+
+    @Override
+    public void discard(AuditTarget target, Long entityId) {
+        // rows for a deleted entity would fail their foreign key once written
+        Predicate<AuditRecord> matches = record -> record.target() == target && record.entityId().equals(entityId);
+        List<AuditRecord> pending = pending(false);
+        if (pending != null) {
+            pending.removeIf(matches);
+        }
+        queue.removeIf(matches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditRecord> pending(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        List<AuditRecord> pending = (List<AuditRecord>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            List<AuditRecord> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    if (durability == AuditDurability.COMMIT && !created.isEmpty()) {
+                        // audited rows may still sit in the persistence context
+                        entityManager.flush();
+                        insert(created);
+                    }
+                }
+
+                @Override
+                public void afterCommit() {
+                    if (durability == AuditDurability.ASYNC && !created.isEmpty()) {
+                        enqueue(created);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DefaultAuditWriter.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void enqueue(List<AuditRecord> records) {
+        List<AuditRecord> overflow = new ArrayList<>();
+        for (AuditRecord record : records) {
+            try {
+                if (!queue.offer(record, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    overflow.add(record);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                overflow.add(record);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            // the writer is behind, so the caller pays for its own rows instead of growing the queue
+            log.debug("Audit queue is full, writing {} records on the caller thread", overflow.size());
+            flush(overflow);
+        }
+    }
+
+    private void drain() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<AuditRecord> records) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(records));
+        } catch (RuntimeException e) {
+            log.warn("Audit batch of {} records failed, retrying one by one", records.size(), e);
+            for (AuditRecord record : records) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(record)));
+                } catch (RuntimeException rowFailure) {
+                    log.warn("Audit record dropped: {}", record, rowFailure);
+                }
+            }
+        }
+    }
+
+    private void insert(List<AuditRecord> records) {
+        Map<AuditTarget, List<AuditRecord>> byTarget = new EnumMap<>(AuditTarget.class);
+        for (AuditRecord record : records) {
+            byTarget.computeIfAbsent(record.target(), target -> new ArrayList<>()).add(record);
+        }
+        byTarget.forEach((target, rows) -> jdbcTemplate.batchUpdate(target.getInsertSql(), rows, batchSize,
+                (statement, record) -> {
+                    statement.setLong(1, record.entityId());
+                    statement.setLong(2, record.userId());
+                    statement.setString(3, record.operation().name());
+                    statement.setObject(4, record.operationTime());
+                }));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.itmo.cs.util.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.itmo.cs.dto.CacheStatsDTO;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
+import ru.itmo.cs.dto.human.HumanDTO;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class DefaultDtoCacheHandler implements DtoCacheHandler {
+
+    private static final String GOVERNOR = "governor:";
+    private static final String COORDINATES = "coordinates:";
+
+    private final DtoCache<Long, CityDTO> cities;
+    private final DtoCache<Long, HumanDTO> humans;
+    private final DtoCache<Long, CoordinatesDTO> coordinates;
+
+    public DefaultDtoCacheHandler(@Value("${cache.dto.max-size:10000}") int maxSize,
+                                  @Value("${cache.dto.ttl-ms:60000}") long ttlMs) {
+        this.cities = new DtoCache<>("cities", maxSize, ttlMs, DefaultDtoCacheHandler::embedded);
+        this.humans = new DtoCache<>("humans", maxSize, ttlMs);
+        this.coordinates = new DtoCache<>("coordinates", maxSize, ttlMs);
+    }
+
+    @Override
+    public CityDTO getCity(Long id, Function<Long, CityDTO> loader) {
+        return cities.get(id, loader);
+    }
+
+    @Override
+    public HumanDTO getHuman(Long id, Function<Long, HumanDTO> loader) {
+        return humans.get(id, loader);
+    }
+
+    @Override
+    public CoordinatesDTO getCoordinates(Long id, Function<Long, CoordinatesDTO> loader) {
+        return coordinates.get(id, loader);
+    }
+
+    @Override
+    public void evictCity(Long id) {
+        evict(() -> cities.invalidate(id));
+    }
+
+    @Override
+    public void evictHuman(Long id) {
+        evict(() -> {
+            humans.invalidate(id);
+            cities.invalidateDependents(GOVERNOR + id);
+        });
+    }
+
+    @Override
+    public void evictCoordinates(Long id) {
+        evict(() -> {
+            coordinates.invalidate(id);
+            cities.invalidateDependents(COORDINATES + id);
+        });
+    }
+
+    @Override
+    public List<CacheStatsDTO> getStats() {
+        return List.of(cities.stats(), humans.stats(), coordinates.stats());
+    }
+
+    private static Collection<String> embedded(CityDTO city) {
+        List<String> keys = new ArrayList<>(2);
+        if (city.getGovernor() != null && city.getGovernor().getId() != null) {
+            keys.add(GOVERNOR + city.getGovernor().getId());
+        }
+        if (city.getCoordinates() != null && city.getCoordinates().getId() != null) {
+            keys.add(COORDINATES + city.getCoordinates().getId());
+        }
+        return keys;
+    }
+
+    private void evict(Runnable invalidation) {
+        // the second pass drops anything re-read from the database before the change became visible
+        invalidation.run();
+        TransactionCallbacks.afterCompletion(committed -> invalidation.run());
+    }
+}
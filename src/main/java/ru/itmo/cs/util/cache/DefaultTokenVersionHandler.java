@@ -0,0 +1,61 @@
+package ru.itmo.cs.util.cache;
+
+import org.springframework.stereotype.Component;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.repository.UserRepository;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token version of every user seen by this node. The version is a fingerprint of the fields a token
+ * vouches for, so it survives restarts without a column of its own and changes whenever the username,
+ * password or role does; tokens issued before such a change stop matching. It is a digest rather than
+ * a hashCode, since an enum's hashCode differs between JVMs and would void every token on restart.
+ */
+@Component
+public class DefaultTokenVersionHandler implements TokenVersionHandler {
+
+    private final UserRepository userRepository;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    public DefaultTokenVersionHandler(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public int versionOf(User user) {
+        String fingerprint = user.getUsername() + "|" + user.getPassword() + "|"
+                + (user.getRole() == null ? "" : user.getRole().name());
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getInt();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean isCurrent(Long userId, Integer version) {
+        if (userId == null || version == null) {
+            return false;
+        }
+        // read from the database once per user, a removed user has no version and matches nothing
+        Integer current = versions.computeIfAbsent(userId, id -> userRepository.findById(id)
+                .map(this::versionOf)
+                .orElse(null));
+        return version.equals(current);
+    }
+
+    @Override
+    public void evict(Long userId) {
+        // the second pass drops a version re-read from the database before the change became visible
+        versions.remove(userId);
+        TransactionCallbacks.afterCompletion(committed -> versions.remove(userId));
+    }
+}
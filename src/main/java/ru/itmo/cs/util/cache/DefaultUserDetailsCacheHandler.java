@@ -0,0 +1,41 @@
+package ru.itmo.cs.util.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import ru.itmo.cs.dto.CacheStatsDTO;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.util.function.Function;
+
+@Component
+public class DefaultUserDetailsCacheHandler implements UserDetailsCacheHandler {
+
+    private final DtoCache<String, UserDetails> users;
+
+    public DefaultUserDetailsCacheHandler(@Value("${cache.users.max-size:10000}") int maxSize,
+                                          @Value("${cache.users.ttl-ms:300000}") long ttlMs) {
+        this.users = new DtoCache<>("users", maxSize, ttlMs);
+    }
+
+    @Override
+    public UserDetails getUser(String username, Function<String, UserDetails> loader) {
+        // the cache keeps a snapshot instead of the detached entity, and callers get their own copy of it
+        // because the authentication manager erases the password of the details it returns
+        UserDetails snapshot = users.get(username, name -> User.withUserDetails(loader.apply(name)).build());
+        return User.withUserDetails(snapshot).build();
+    }
+
+    @Override
+    public void evictUser(String username) {
+        // the second pass drops anything re-read from the database before the change became visible
+        users.invalidate(username);
+        TransactionCallbacks.afterCompletion(committed -> users.invalidate(username));
+    }
+
+    @Override
+    public CacheStatsDTO getStats() {
+        return users.stats();
+    }
+}
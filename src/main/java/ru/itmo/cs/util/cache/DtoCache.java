@@ -0,0 +1,136 @@
+package ru.itmo.cs.util.cache;
+
+import ru.itmo.cs.dto.CacheStatsDTO;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class DtoCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMs;
+    // keys of the other objects a cached value embeds, e.g. "governor:5"
+    private final Function<V, Collection<String>> dependencies;
+
+    private final Map<K, Entry<V>> entries;
+    // reverse index from a dependency to the cached ids that embed it
+    private final Map<String, Set<K>> dependents = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // bumped on every invalidation so that a load racing with a write is not cached
+    private long generation;
+
+    public DtoCache(String name, int maxSize, long ttlMs) {
+        this(name, maxSize, ttlMs, value -> List.of());
+    }
+
+    public DtoCache(String name, int maxSize, long ttlMs, Function<V, Collection<String>> dependencies) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.dependencies = dependencies;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > DtoCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    unlink(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K id, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(id);
+            if (entry != null) {
+                if (System.currentTimeMillis() - entry.loadedAt() < ttlMs) {
+                    hits.incrementAndGet();
+                    return entry.value();
+                }
+                remove(id);
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        V value = loader.apply(id);
+
+        synchronized (this) {
+            if (generation == loadGeneration && maxSize > 0) {
+                Entry<V> entry = new Entry<>(value, System.currentTimeMillis());
+                unlink(id, entries.put(id, entry));
+                for (String dependency : dependencies.apply(value)) {
+                    dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(id);
+                }
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K id) {
+        generation++;
+        if (remove(id) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    // touches only the values that embed the dependency instead of scanning the whole cache
+    public synchronized void invalidateDependents(String dependency) {
+        generation++;
+        Set<K> ids = dependents.remove(dependency);
+        if (ids == null) {
+            return;
+        }
+        for (K id : ids) {
+            if (remove(id) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+        dependents.clear();
+    }
+
+    public synchronized CacheStatsDTO stats() {
+        return new CacheStatsDTO(name, entries.size(), hits.get(), misses.get(), evictions.get(), invalidations.get());
+    }
+
+    private Entry<V> remove(K id) {
+        Entry<V> entry = entries.remove(id);
+        unlink(id, entry);
+        return entry;
+    }
+
+    private void unlink(K id, Entry<V> entry) {
+        if (entry == null) {
+            return;
+        }
+        for (String dependency : dependencies.apply(entry.value())) {
+            Set<K> ids = dependents.get(dependency);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                dependents.remove(dependency);
+            }
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
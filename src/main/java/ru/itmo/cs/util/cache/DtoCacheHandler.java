@@ -0,0 +1,19 @@
+package ru.itmo.cs.util.cache;
+
+import ru.itmo.cs.dto.CacheStatsDTO;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
+import ru.itmo.cs.dto.human.HumanDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface DtoCacheHandler {
+    CityDTO getCity(Long id, Function<Long, CityDTO> loader);
+    HumanDTO getHuman(Long id, Function<Long, HumanDTO> loader);
+    CoordinatesDTO getCoordinates(Long id, Function<Long, CoordinatesDTO> loader);
+    void evictCity(Long id);
+    void evictHuman(Long id);
+    void evictCoordinates(Long id);
+    List<CacheStatsDTO> getStats();
+}
@@ -0,0 +1,9 @@
+package ru.itmo.cs.util.cache;
+
+import ru.itmo.cs.entity.User;
+
+public interface TokenVersionHandler {
+    int versionOf(User user);
+    boolean isCurrent(Long userId, Integer version);
+    void evict(Long userId);
+}
@@ -0,0 +1,28 @@
+package ru.itmo.cs.util.cache;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.itmo.cs.entity.User;
+
+public class UserCacheListener {
+
+    // resolved lazily: listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<UserDetailsCacheHandler> userDetailsCacheHandler;
+    private final ObjectProvider<TokenVersionHandler> tokenVersionHandler;
+
+    public UserCacheListener(ObjectProvider<UserDetailsCacheHandler> userDetailsCacheHandler,
+                             ObjectProvider<TokenVersionHandler> tokenVersionHandler) {
+        this.userDetailsCacheHandler = userDetailsCacheHandler;
+        this.tokenVersionHandler = tokenVersionHandler;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        userDetailsCacheHandler.getObject().evictUser(user.getUsername());
+        tokenVersionHandler.getObject().evict(user.getId());
+    }
+}
@@ -0,0 +1,12 @@
+package ru.itmo.cs.util.cache;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.itmo.cs.dto.CacheStatsDTO;
+
+import java.util.function.Function;
+
+public interface UserDetailsCacheHandler {
+    UserDetails getUser(String username, Function<String, UserDetails> loader);
+    void evictUser(String username);
+    CacheStatsDTO getStats();
+}
@@ -0,0 +1,72 @@
+package ru.itmo.cs.util.cache;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Claims of tokens whose signature was already checked, keyed by a SHA-256 hash of the token so the
+ * tokens themselves are not kept in memory. An entry lives until the token expires or is pushed out
+ * by newer ones.
+ */
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final Map<String, Claims> entries;
+
+    public VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    public Claims get(String token, Function<String, Claims> verifier) {
+        String key = hash(token);
+        synchronized (this) {
+            Claims claims = entries.get(key);
+            if (claims != null) {
+                if (!isExpired(claims)) {
+                    return claims;
+                }
+                entries.remove(key);
+            }
+        }
+
+        // the verifier rejects expired tokens itself, so only live ones are stored
+        Claims claims = verifier.apply(token);
+        if (claims.getExpiration() != null && maxSize > 0) {
+            synchronized (this) {
+                entries.put(key, claims);
+            }
+        }
+        return claims;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static boolean isExpired(Claims claims) {
+        return !claims.getExpiration().after(new Date());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.itmo.cs.util.csv;
+
+import ru.itmo.cs.dto.ImportResultDTO;
+import ru.itmo.cs.util.imports.ImportRow;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * How one kind of CSV file is read: the header it must have, how a row becomes a DTO,
+ * how that DTO is validated and how a chunk of accepted rows is saved.
+ */
+public record CsvFormat<T>(List<String> columns,
+                           Function<CsvRow, T> parser,
+                           BiFunction<Long, T, ImportRow<T>> validator,
+                           Function<List<ImportRow<T>>, List<ImportResultDTO>> writer) {
+}
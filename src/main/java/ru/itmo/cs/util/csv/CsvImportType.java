@@ -0,0 +1,7 @@
+package ru.itmo.cs.util.csv;
+
+public enum CsvImportType {
+    COORDINATES,
+    HUMANS,
+    CITIES
+}
@@ -0,0 +1,71 @@
+package ru.itmo.cs.util.csv;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class CsvRow {
+    private final Map<String, Integer> columns;
+    private final List<String> fields;
+
+    public CsvRow(Map<String, Integer> columns, List<String> fields) {
+        this.columns = columns;
+        this.fields = fields;
+    }
+
+    public String getString(String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    public Long getLong(String column) {
+        return get(column, Long::valueOf);
+    }
+
+    public Double getDouble(String column) {
+        return get(column, Double::valueOf);
+    }
+
+    public int getInt(String column) {
+        Integer value = get(column, Integer::valueOf);
+        return value == null ? 0 : value;
+    }
+
+    public Boolean getBoolean(String column) {
+        return get(column, value -> switch (value.toLowerCase()) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException(value);
+        });
+    }
+
+    public <E extends Enum<E>> E getEnum(String column, Class<E> type) {
+        return get(column, value -> Enum.valueOf(type, value.toUpperCase()));
+    }
+
+    public LocalDateTime getLocalDateTime(String column) {
+        return get(column, LocalDateTime::parse);
+    }
+
+    public ZonedDateTime getZonedDateTime(String column) {
+        return get(column, ZonedDateTime::parse);
+    }
+
+    private <T> T get(String column, Function<String, T> parser) {
+        String value = getString(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(column + ": некорректное значение '" + value + "'");
+        }
+    }
+}
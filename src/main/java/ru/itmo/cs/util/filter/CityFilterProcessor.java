@@ -1,13 +1,26 @@
 package ru.itmo.cs.util.filter;
 
+import jakarta.persistence.criteria.JoinType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import ru.itmo.cs.dto.city.CityDTO;
 import ru.itmo.cs.dto.city.CityFilterCriteria;
+import ru.itmo.cs.entity.City;
 import ru.itmo.cs.repository.CityRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
+import ru.itmo.cs.util.pagination.KeysetPaginationHandler;
+import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.search.NameSearchHandler;
+
+import java.util.Set;
 
 
 @Component
@@ -16,15 +29,81 @@ public class CityFilterProcessor implements FilterProcessor<CityDTO, CityFilterC
 
     private final CityRepository cityRepository;
     private final EntityMapper entityMapper;
+    private final PaginationHandler paginationHandler;
+    private final KeysetPaginationHandler keysetPaginationHandler;
+    private final NameSearchHandler nameSearchHandler;
 
     @Override
     public Page<CityDTO> filter(CityFilterCriteria criteria, Pageable pageable) {
-        if ((criteria.getName() == null || criteria.getName().isEmpty()) &&
-                (criteria.getGovernorName() == null || criteria.getGovernorName().isEmpty())) {
-            return cityRepository.findAll(pageable).map(entityMapper::toCityDTO);
-        } else {
-            return cityRepository.findByFilters(criteria.getName(), criteria.getGovernorName(), pageable)
-                    .map(entityMapper::toCityDTO);
+        return cityRepository.findAll(toSpecification(criteria), pageable).map(entityMapper::toCityDTO);
+    }
+
+    @Override
+    public Slice<CityDTO> filterSlice(CityFilterCriteria criteria, Pageable pageable) {
+        Window<City> window = cityRepository.findBy(toSpecification(criteria), query -> query
+                .project(CityRepository.DETAILS_PATHS)
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(paginationHandler.createScrollPosition(pageable)));
+
+        return new SliceImpl<>(window.getContent(), pageable, window.hasNext()).map(entityMapper::toCityDTO);
+    }
+
+    @Override
+    public long count(CityFilterCriteria criteria) {
+        return cityRepository.count(toSpecification(criteria));
+    }
+
+    @Override
+    public CursorPage<CityDTO> scroll(CityFilterCriteria criteria, Cursor cursor, int size) {
+        Specification<City> specification = toSpecification(criteria)
+                .and(keysetPaginationHandler.createSpecification(cursor));
+
+        return keysetPaginationHandler
+                .createPage(cityRepository.findBy(specification, query -> query.project(CityRepository.DETAILS_PATHS).limit(size + 1).all()), size, cursor)
+                .map(entityMapper::toCityDTO);
+    }
+
+    public Specification<City> toSpecification(CityFilterCriteria criteria) {
+        return Specification.<City>where(nameContains(criteria.getName()))
+                .and(equalTo("climate", criteria.getClimate()))
+                .and(equalTo("government", criteria.getGovernment()))
+                .and(equalTo("standardOfLiving", criteria.getStandardOfLiving()))
+                .and(governorNameContains(criteria.getGovernorName()));
+    }
+
+    private Specification<City> equalTo(String attribute, Object value) {
+        return value == null
+                ? null
+                : (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    private Specification<City> nameContains(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        Specification<City> like = (root, query, cb) -> cb.like(root.get("name"), "%" + name + "%");
+        return nameSearchHandler.findCityIds(name)
+                .map(ids -> like.and(idIn(ids)))
+                .orElse(like);
+    }
+
+    private Specification<City> governorNameContains(String governorName) {
+        if (governorName == null || governorName.isEmpty()) {
+            return null;
         }
+        Specification<City> like = (root, query, cb) -> cb.like(root.join("governor", JoinType.LEFT).get("name"),
+                "%" + governorName + "%");
+        return nameSearchHandler.findHumanIds(governorName)
+                .map(ids -> like.and(governorIdIn(ids)))
+                .orElse(like);
+    }
+
+    private Specification<City> idIn(Set<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    private Specification<City> governorIdIn(Set<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("governor").get("id").in(ids);
     }
 }
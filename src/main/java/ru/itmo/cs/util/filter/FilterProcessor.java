@@ -2,7 +2,16 @@ package ru.itmo.cs.util.filter;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
 
 public interface FilterProcessor<T, F> {
     Page<T> filter(F filterCriteria, Pageable pageable);
+
+    Slice<T> filterSlice(F filterCriteria, Pageable pageable);
+
+    long count(F filterCriteria);
+
+    CursorPage<T> scroll(F filterCriteria, Cursor cursor, int size);
 }
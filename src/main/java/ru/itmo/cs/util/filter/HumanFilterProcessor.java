@@ -3,11 +3,23 @@ package ru.itmo.cs.util.filter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 import ru.itmo.cs.dto.human.HumanDTO;
 import ru.itmo.cs.dto.human.HumanFilterCriteria;
+import ru.itmo.cs.entity.Human;
 import ru.itmo.cs.repository.HumanRepository;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.pagination.Cursor;
+import ru.itmo.cs.util.pagination.CursorPage;
+import ru.itmo.cs.util.pagination.KeysetPaginationHandler;
+import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.search.NameSearchHandler;
+
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -15,14 +27,56 @@ public class HumanFilterProcessor implements FilterProcessor<HumanDTO, HumanFilt
 
     private final HumanRepository humanRepository;
     private final EntityMapper entityMapper;
+    private final PaginationHandler paginationHandler;
+    private final KeysetPaginationHandler keysetPaginationHandler;
+    private final NameSearchHandler nameSearchHandler;
 
     @Override
     public Page<HumanDTO> filter(HumanFilterCriteria criteria, Pageable pageable) {
-        if (criteria.getName() == null || criteria.getName().isEmpty()) {
-            return humanRepository.findAll(pageable).map(entityMapper::toHumanDTO);
-        } else {
-            return humanRepository.findByNameContaining(criteria.getName(), pageable)
-                    .map(entityMapper::toHumanDTO);
+        return humanRepository.findAll(toSpecification(criteria), pageable).map(entityMapper::toHumanDTO);
+    }
+
+    @Override
+    public Slice<HumanDTO> filterSlice(HumanFilterCriteria criteria, Pageable pageable) {
+        Window<Human> window = humanRepository.findBy(toSpecification(criteria), query -> query
+                .project(HumanRepository.DETAILS_PATHS)
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(paginationHandler.createScrollPosition(pageable)));
+
+        return new SliceImpl<>(window.getContent(), pageable, window.hasNext()).map(entityMapper::toHumanDTO);
+    }
+
+    @Override
+    public long count(HumanFilterCriteria criteria) {
+        return humanRepository.count(toSpecification(criteria));
+    }
+
+    @Override
+    public CursorPage<HumanDTO> scroll(HumanFilterCriteria criteria, Cursor cursor, int size) {
+        Specification<Human> specification = toSpecification(criteria)
+                .and(keysetPaginationHandler.createSpecification(cursor));
+
+        return keysetPaginationHandler
+                .createPage(humanRepository.findBy(specification, query -> query.project(HumanRepository.DETAILS_PATHS).limit(size + 1).all()), size, cursor)
+                .map(entityMapper::toHumanDTO);
+    }
+
+    private Specification<Human> toSpecification(HumanFilterCriteria criteria) {
+        return Specification.where(nameContains(criteria.getName()));
+    }
+
+    private Specification<Human> nameContains(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
         }
+        Specification<Human> like = (root, query, cb) -> cb.like(root.get("name"), "%" + name + "%");
+        return nameSearchHandler.findHumanIds(name)
+                .map(ids -> like.and(idIn(ids)))
+                .orElse(like);
+    }
+
+    private Specification<Human> idIn(Set<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
     }
 }
@@ -0,0 +1,7 @@
+package ru.itmo.cs.util.groupcommit;
+
+import ru.itmo.cs.dto.city.CityDTO;
+
+public interface CityGroupCommitHandler {
+    CityDTO createCity(CityDTO cityDTO);
+}
@@ -0,0 +1,219 @@
+package ru.itmo.cs.util.groupcommit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.service.CityService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Folds concurrent city creations into one transaction. Each request is created on the committer
+ * thread under its caller's security context and request attributes, so the current user is looked
+ * up once per request, as on the direct path.
+ */
+@Component
+@Slf4j
+public class DefaultCityGroupCommitHandler implements CityGroupCommitHandler {
+
+    private final CityService cityService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<PendingCity> queue;
+
+    private volatile boolean running;
+    private Thread committer;
+
+    public DefaultCityGroupCommitHandler(CityService cityService,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${city.group-commit.enabled:false}") boolean enabled,
+                                         @Value("${city.group-commit.max-batch-size:64}") int maxBatchSize,
+                                         @Value("${city.group-commit.max-wait-ms:5}") long maxWaitMs,
+                                         @Value("${city.group-commit.queue-capacity:1000}") int queueCapacity,
+                                         @Value("${city.group-commit.timeout-ms:10000}") long timeoutMs) {
+        this.cityService = cityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            running = true;
+            committer = new Thread(this::drain, "city-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        // callers that see the flag no longer queue, and a racing offer is taken back by its caller
+        running = false;
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+        List<PendingCity> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        try {
+            if (!rest.isEmpty()) {
+                commit(rest);
+            }
+        } catch (Throwable e) {
+            log.error("City group commit of {} requests failed on shutdown", rest.size(), e);
+        } finally {
+            IllegalStateException stopped = new IllegalStateException("Сервис останавливается, City не создан");
+            rest.forEach(pending -> pending.result().completeExceptionally(stopped));
+        }
+    }
+
+    @Override
+    public CityDTO createCity(CityDTO cityDTO) {
+        // a caller that already holds a transaction expects the city inside it
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return cityService.createCity(cityDTO);
+        }
+        PendingCity pending = new PendingCity(cityDTO, SecurityContextHolder.getContext(),
+                RequestContextHolder.getRequestAttributes(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            // the committer is behind, so the caller commits on its own instead of growing the queue
+            return cityService.createCity(cityDTO);
+        }
+        if (!running && queue.remove(pending)) {
+            // stop() began after the check above and will not drain this request
+            return cityService.createCity(cityDTO);
+        }
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Очередь создания City не обработана вовремя, City не создан", e);
+            }
+            // the committer already holds the request; an error here could hide a created city and invite
+            // a duplicate on retry, so the caller waits for the real outcome
+            return awaitOutcome(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Создание City прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private CityDTO awaitOutcome(PendingCity pending) {
+        try {
+            // the committer completes every request it takes, even when it fails or stops
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void drain() {
+        List<PendingCity> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingCity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // the committer must outlive any failure, and no caller may be left waiting
+                    log.error("City group commit of {} requests failed", batch.size(), e);
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingCity> batch) {
+        List<CityDTO> created;
+        try {
+            created = transactionTemplate.execute(status -> batch.stream().map(this::create).toList());
+        } catch (RuntimeException e) {
+            // one request failed the shared transaction; replay each on its own so only that one fails
+            log.debug("City group commit of {} requests failed, retrying one by one", batch.size(), e);
+            batch.forEach(this::commitOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(created.get(i));
+        }
+    }
+
+    private void commitOne(PendingCity pending) {
+        try {
+            pending.result().complete(transactionTemplate.execute(status -> create(pending)));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private CityDTO create(PendingCity pending) {
+        // ownership and audit rows belong to the user who sent the request
+        SecurityContextHolder.setContext(pending.securityContext());
+        // the caller's request scope lets getCurrentUser reuse the user it already resolved
+        RequestContextHolder.setRequestAttributes(pending.requestAttributes());
+        try {
+            return cityService.createCity(pending.city());
+        } finally {
+            SecurityContextHolder.clearContext();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private record PendingCity(CityDTO city, SecurityContext securityContext, RequestAttributes requestAttributes,
+                               CompletableFuture<CityDTO> result) {
+    }
+}
@@ -0,0 +1,110 @@
+package ru.itmo.cs.util.hashing;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.itmo.cs.dto.PasswordHashingStatsDTO;
+import ru.itmo.cs.exception.TooManyRequestsException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a pool sized to the cores, so a burst of logins cannot take every request
+ * thread. Requests that do not fit into the bounded queue are turned away at once instead of waiting.
+ */
+@Component
+public class DefaultPasswordHashingHandler implements PasswordHashingHandler {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long retryAfterSeconds;
+    private final long timeoutMs;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public DefaultPasswordHashingHandler(@Value("${security.password-hashing.threads:0}") int threads,
+                                         @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                         @Value("${security.password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+                                         @Value("${security.password-hashing.timeout-ms:5000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.queueCapacity = queueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public <T> T run(Supplier<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timed(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Слишком много запросов на проверку пароля, повторите позже", retryAfterSeconds);
+        }
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // cancelling alone leaves the task in the queue, so it is removed to free the slot;
+            // a hash that has already started ignores the interrupt and still finishes
+            result.cancel(true);
+            executor.remove((Runnable) result);
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Проверка пароля не уложилась во время, повторите позже", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Проверка пароля прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public PasswordHashingStatsDTO getStats() {
+        long completedCount = completed.get();
+        double averageLatencyMs = completedCount == 0 ? 0 : totalLatencyNanos.get() / (double) completedCount / 1_000_000;
+        return new PasswordHashingStatsDTO(executor.getCorePoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), queueCapacity, completedCount, rejected.get(),
+                averageLatencyMs, maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    private <T> T timed(Supplier<T> hashing) {
+        long start = System.nanoTime();
+        try {
+            return hashing.get();
+        } finally {
+            long latency = System.nanoTime() - start;
+            totalLatencyNanos.addAndGet(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            // counted here rather than by the executor, which updates its count after the caller is woken
+            completed.incrementAndGet();
+        }
+    }
+}
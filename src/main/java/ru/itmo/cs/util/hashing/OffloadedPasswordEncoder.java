@@ -0,0 +1,32 @@
+package ru.itmo.cs.util.hashing;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hands the CPU-bound work of another encoder to {@link PasswordHashingHandler}.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingHandler passwordHashingHandler;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, PasswordHashingHandler passwordHashingHandler) {
+        this.delegate = delegate;
+        this.passwordHashingHandler = passwordHashingHandler;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingHandler.run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHashingHandler.run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.itmo.cs.util.hashing;
+
+import ru.itmo.cs.dto.PasswordHashingStatsDTO;
+
+import java.util.function.Supplier;
+
+public interface PasswordHashingHandler {
+    <T> T run(Supplier<T> hashing);
+    PasswordHashingStatsDTO getStats();
+}
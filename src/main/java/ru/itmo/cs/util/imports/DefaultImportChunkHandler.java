@@ -0,0 +1,67 @@
+package ru.itmo.cs.util.imports;
+
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.itmo.cs.dto.ImportResultDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultImportChunkHandler implements ImportChunkHandler {
+
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final EntityManager entityManager;
+
+    @Override
+    public <T> List<ImportResultDTO> persist(List<ImportRow<T>> rows,
+                                             Function<List<ImportRow<T>>, List<ImportResultDTO>> save) {
+        if (rows.stream().allMatch(row -> row.rejection() != null)) {
+            return rows.stream().map(ImportRow::rejection).toList();
+        }
+        try {
+            return transactionTemplate.execute(status -> detached(save.apply(rows)));
+        } catch (RuntimeException e) {
+            // a row the validator could not catch failed the chunk; replay it row by row
+            log.debug("Import chunk failed, retrying {} rows one by one", rows.size(), e);
+            return rows.stream().map(row -> persistOne(row, save)).toList();
+        }
+    }
+
+    @Override
+    public List<String> violations(String prefix, Object value) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Object> violation : validator.validate(value)) {
+            errors.add(prefix + violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private List<ImportResultDTO> detached(List<ImportResultDTO> results) {
+        // with open-session-in-view every saved row would otherwise stay managed until the response ends
+        entityManager.flush();
+        entityManager.clear();
+        return results;
+    }
+
+    private <T> ImportResultDTO persistOne(ImportRow<T> row, Function<List<ImportRow<T>>, List<ImportResultDTO>> save) {
+        if (row.rejection() != null) {
+            return row.rejection();
+        }
+        try {
+            return transactionTemplate.execute(status -> detached(save.apply(List.of(row))).get(0));
+        } catch (RuntimeException e) {
+            return ImportResultDTO.failed(row.index(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.itmo.cs.util.imports;
+
+import ru.itmo.cs.dto.ImportResultDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+public interface ImportChunkHandler {
+    <T> List<ImportResultDTO> persist(List<ImportRow<T>> rows, Function<List<ImportRow<T>>, List<ImportResultDTO>> save);
+    List<String> violations(String prefix, Object value);
+}
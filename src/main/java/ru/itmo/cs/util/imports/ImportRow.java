@@ -0,0 +1,17 @@
+package ru.itmo.cs.util.imports;
+
+import ru.itmo.cs.dto.ImportResultDTO;
+
+/**
+ * One input record on its way to the database; {@code rejection} is set when it must not be saved.
+ */
+public record ImportRow<T>(long index, T value, ImportResultDTO rejection) {
+
+    public static <T> ImportRow<T> accepted(long index, T value) {
+        return new ImportRow<>(index, value, null);
+    }
+
+    public static <T> ImportRow<T> rejected(ImportResultDTO rejection) {
+        return new ImportRow<>(rejection.getIndex(), null, rejection);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.itmo.cs.util.pagination;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+public interface CountHandler {
+    <T> Slice<T> paginate(CountMode countMode,
+                          String countKey,
+                          Pageable pageable,
+                          Function<Pageable, Page<T>> pageQuery,
+                          Function<Pageable, Slice<T>> sliceQuery,
+                          LongSupplier countQuery);
+}
@@ -0,0 +1,7 @@
+package ru.itmo.cs.util.pagination;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE
+}
@@ -0,0 +1,60 @@
+package ru.itmo.cs.util.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class Cursor {
+    private static final String SEPARATOR = ";";
+
+    private final String sortBy;
+    private final boolean ascending;
+    private final boolean backward;
+    // null for the first page: there is no boundary row yet
+    private final Long id;
+    private final String value;
+
+    public static Cursor first(String sortBy, boolean ascending) {
+        return new Cursor(sortBy, ascending, false, null, null);
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                sortBy,
+                ascending ? "asc" : "desc",
+                backward ? "prev" : "next",
+                String.valueOf(id),
+                value == null ? "" : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR, 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        if (parts.length != 5 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+        try {
+            return new Cursor(
+                    parts[0],
+                    "asc".equals(parts[1]),
+                    "prev".equals(parts[2]),
+                    Long.valueOf(parts[3]),
+                    parts[4].isEmpty() ? null : parts[4].substring(1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+}
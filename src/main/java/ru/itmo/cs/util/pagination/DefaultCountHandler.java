@@ -0,0 +1,130 @@
+package ru.itmo.cs.util.pagination;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+@Component
+@Slf4j
+public class DefaultCountHandler implements CountHandler {
+
+    // least recently used keys are dropped one at a time, so a burst of new filters keeps the other estimates
+    private final Map<String, CachedCount> counts = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                    return size() > maxCachedKeys;
+                }
+            });
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "count-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${pagination.count.estimate-ttl-ms:30000}")
+    private long estimateTtlMs = 30000;
+
+    @Value("${pagination.count.max-cached-keys:1024}")
+    private int maxCachedKeys = 1024;
+
+    @Override
+    public <T> Slice<T> paginate(CountMode countMode,
+                                 String countKey,
+                                 Pageable pageable,
+                                 Function<Pageable, Page<T>> pageQuery,
+                                 Function<Pageable, Slice<T>> sliceQuery,
+                                 LongSupplier countQuery) {
+        return switch (countMode) {
+            case EXACT -> pageQuery.apply(pageable);
+            case NONE -> sliceQuery.apply(pageable);
+            case ESTIMATED -> {
+                Slice<T> slice = sliceQuery.apply(pageable);
+                long seen = pageable.getOffset() + slice.getNumberOfElements();
+                // the last page tells the exact total, otherwise there is at least one more row
+                if (!slice.hasNext()) {
+                    yield new PageImpl<>(slice.getContent(), pageable, seen);
+                }
+                Long estimate = estimate(countKey, countQuery);
+                // until the first count is ready in the background the page only tells that a next one exists
+                yield estimate == null
+                        ? slice
+                        : new PageImpl<>(slice.getContent(), pageable, Math.max(estimate, seen + 1));
+            }
+        };
+    }
+
+    private Long estimate(String countKey, LongSupplier countQuery) {
+        CachedCount cached = counts.get(countKey);
+        if (cached == null) {
+            CachedCount pending = new CachedCount(null, 0);
+            cached = counts.putIfAbsent(countKey, pending);
+            if (cached == null) {
+                refresh(countKey, pending, countQuery);
+                return null;
+            }
+        }
+        if (cached.value != null && System.currentTimeMillis() - cached.computedAt > estimateTtlMs) {
+            refresh(countKey, cached, countQuery);
+        }
+        return cached.value;
+    }
+
+    private void refresh(String countKey, CachedCount stale, LongSupplier countQuery) {
+        if (!stale.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    counts.put(countKey, new CachedCount(countQuery.getAsLong(), System.currentTimeMillis()));
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось обновить оценку количества для {}", countKey, e);
+                    release(countKey, stale);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(countKey, stale);
+        }
+    }
+
+    // a count that never finished is forgotten so that the next request schedules it again
+    private void release(String countKey, CachedCount stale) {
+        if (stale.value == null) {
+            counts.remove(countKey, stale);
+        } else {
+            stale.refreshing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static final class CachedCount {
+        private final Long value;
+        private final long computedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedCount(Long value, long computedAt) {
+            this.value = value;
+            this.computedAt = computedAt;
+        }
+    }
+}
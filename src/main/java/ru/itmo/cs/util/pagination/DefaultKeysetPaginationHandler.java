@@ -0,0 +1,140 @@
+package ru.itmo.cs.util.pagination;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@Component
+public class DefaultKeysetPaginationHandler implements KeysetPaginationHandler {
+    private static final String TIEBREAK = "id";
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    @Override
+    public Cursor createCursor(String cursor, String sortBy, String sortDir) {
+        if (cursor != null && !cursor.isBlank()) {
+            return Cursor.decode(cursor);
+        }
+        return Cursor.first(sortBy, sortDir.equalsIgnoreCase(Sort.Direction.ASC.name()));
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> Specification<T> createSpecification(Cursor cursor) {
+        return (root, query, cb) -> {
+            Path<Comparable> key = path(root, cursor.getSortBy());
+            Path<Comparable> id = root.get(TIEBREAK);
+            boolean scanAscending = cursor.isAscending() != cursor.isBackward();
+
+            // rows with a null sort key stay at the end of the forward order
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            query.orderBy(
+                    scanAscending ? hcb.asc(key, cursor.isBackward()) : hcb.desc(key, cursor.isBackward()),
+                    scanAscending ? cb.asc(id) : cb.desc(id));
+
+            if (cursor.isFirst()) {
+                return null;
+            }
+
+            Comparable value = cursor.getValue() == null ? null : convert(cursor.getValue(), key.getJavaType());
+            Predicate afterId = beyond(cb, id, cursor.getId(), scanAscending);
+
+            if (value == null) {
+                return cursor.isBackward()
+                        ? cb.or(cb.isNotNull(key), cb.and(cb.isNull(key), afterId))
+                        : cb.and(cb.isNull(key), afterId);
+            }
+
+            // k >= v AND (k > v OR id > id0) keeps a range condition on the sort key for the index
+            Predicate seek = cb.and(
+                    scanAscending ? cb.greaterThanOrEqualTo(key, value) : cb.lessThanOrEqualTo(key, value),
+                    cb.or(beyond(cb, key, value, scanAscending), afterId));
+
+            return cursor.isBackward() || key.getJavaType().isPrimitive()
+                    ? seek
+                    : cb.or(seek, cb.isNull(key));
+        };
+    }
+
+    @Override
+    public <T> CursorPage<T> createPage(List<T> rows, int size, Cursor cursor) {
+        boolean hasMore = rows.size() > size;
+        List<T> content = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        if (cursor.isBackward()) {
+            Collections.reverse(content);
+        }
+
+        String next = null;
+        String prev = null;
+        if (!content.isEmpty()) {
+            T first = content.get(0);
+            T last = content.get(content.size() - 1);
+            if (cursor.isBackward()) {
+                next = boundary(last, cursor, false).encode();
+                prev = hasMore ? boundary(first, cursor, true).encode() : null;
+            } else {
+                next = hasMore ? boundary(last, cursor, false).encode() : null;
+                prev = cursor.isFirst() ? null : boundary(first, cursor, true).encode();
+            }
+        }
+        return new CursorPage<>(content, next, prev);
+    }
+
+    private Cursor boundary(Object row, Cursor cursor, boolean backward) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+        Object value = wrapper.getPropertyValue(cursor.getSortBy());
+        Long id = (Long) wrapper.getPropertyValue(TIEBREAK);
+        String raw = value instanceof Enum<?> e ? e.name() : value == null ? null : value.toString();
+        return new Cursor(cursor.getSortBy(), cursor.isAscending(), backward, id, raw);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Y> Path<Y> path(Root<?> root, String property) {
+        Path<?> path = root;
+        for (String part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return (Path<Y>) path;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate beyond(CriteriaBuilder cb, Expression<Comparable> expression,
+                                    Comparable value, boolean ascending) {
+        return ascending ? cb.greaterThan(expression, value) : cb.lessThan(expression, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparable convert(String value, Class<?> type) {
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>) type, value);
+        }
+        if (Temporal.class.isAssignableFrom(type)) {
+            try {
+                return (Comparable) type.getMethod("parse", CharSequence.class).invoke(null, value);
+            } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalArgumentException("Некорректный курсор");
+            }
+        }
+        try {
+            return (Comparable) conversionService.convert(value, type);
+        } catch (ConversionException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.itmo.cs.util.pagination;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
@@ -14,4 +15,12 @@ public class DefaultPaginationHandler implements PaginationHandler {
                 : Sort.by(sortBy).descending();
         return PageRequest.of(page, size, sort);
     }
+
+    @Override
+    public ScrollPosition createScrollPosition(Pageable pageable) {
+        // an offset scroll position names the last row already read, not the first one to return
+        return pageable.getOffset() == 0
+                ? ScrollPosition.offset()
+                : ScrollPosition.offset(pageable.getOffset() - 1);
+    }
 }
@@ -0,0 +1,13 @@
+package ru.itmo.cs.util.pagination;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface KeysetPaginationHandler {
+    Cursor createCursor(String cursor, String sortBy, String sortDir);
+
+    <T> Specification<T> createSpecification(Cursor cursor);
+
+    <T> CursorPage<T> createPage(List<T> rows, int size, Cursor cursor);
+}
@@ -1,8 +1,9 @@
 package ru.itmo.cs.util.pagination;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 
 public interface PaginationHandler {
     Pageable createPageable(int page, int size, String sortBy, String sortDir);
+    ScrollPosition createScrollPosition(Pageable pageable);
 }
-
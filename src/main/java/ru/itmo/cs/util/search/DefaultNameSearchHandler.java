@@ -0,0 +1,118 @@
+package ru.itmo.cs.util.search;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.repository.HumanRepository;
+import ru.itmo.cs.repository.NameView;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DefaultNameSearchHandler implements NameSearchHandler {
+
+    private static final Pattern LIKE_SPECIAL = Pattern.compile("[%_\\\\]");
+
+    private final CityRepository cityRepository;
+    private final HumanRepository humanRepository;
+    private final EntityManager entityManager;
+
+    private final TrigramIndex cityNames = new TrigramIndex();
+    private final TrigramIndex humanNames = new TrigramIndex();
+
+    @Value("${search.index.max-candidates:1000}")
+    private int maxCandidates;
+
+    // the index only knows names written through this node's JPA listener; with other writers (another
+    // node, plain SQL) its id set would drop their rows, so the filters keep plain LIKE unless this is set
+    @Value("${search.index.single-node:false}")
+    private boolean singleNode;
+
+    // an empty or half-built index would drop rows as well
+    private volatile boolean ready;
+
+    @Override
+    public Optional<Set<Long>> findCityIds(String nameSubstring) {
+        return find(cityNames, nameSubstring);
+    }
+
+    @Override
+    public Optional<Set<Long>> findHumanIds(String nameSubstring) {
+        return find(humanNames, nameSubstring);
+    }
+
+    @Override
+    public void cityChanged(Long id, String name) {
+        stage(cityNames, id, name);
+    }
+
+    @Override
+    public void cityRemoved(Long id) {
+        unstage(cityNames, id);
+    }
+
+    @Override
+    public void humanChanged(Long id, String name) {
+        stage(humanNames, id, name);
+    }
+
+    @Override
+    public void humanRemoved(Long id) {
+        unstage(humanNames, id);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        ready = false;
+        cityNames.clear();
+        try (Stream<NameView> rows = cityRepository.streamAllProjectedBy()) {
+            rows.forEach(row -> cityNames.add(row.getId(), row.getName()));
+        }
+        humanNames.clear();
+        try (Stream<NameView> rows = humanRepository.streamAllProjectedBy()) {
+            rows.forEach(row -> humanNames.add(row.getId(), row.getName()));
+        }
+        ready = true;
+        log.info("Name index rebuilt: {} cities, {} humans", cityNames.size(), humanNames.size());
+    }
+
+    private Optional<Set<Long>> find(TrigramIndex index, String nameSubstring) {
+        // the index matches a literal substring, while LIKE reads % and _ as wildcards and \ as the escape
+        if (!singleNode || !ready || LIKE_SPECIAL.matcher(nameSubstring).find()) {
+            return Optional.empty();
+        }
+        // the page query would auto-flush pending renames anyway; doing it first lets the listener see them
+        if (entityManager.isJoinedToTransaction() && entityManager.getFlushMode() == FlushModeType.AUTO) {
+            entityManager.flush();
+        }
+        // a very long id list costs the database more than the LIKE scan it replaces
+        return index.search(nameSubstring).filter(ids -> ids.size() <= maxCandidates);
+    }
+
+    private void stage(TrigramIndex index, Long id, String name) {
+        Set<String> kept = name == null ? Set.of() : Set.of(name);
+        // both the old and the new name stay searchable until the transaction settles
+        Set<String> previous = index.get(id);
+        index.add(id, name);
+        TransactionCallbacks.afterCompletion(committed -> index.retain(id, committed ? kept : previous));
+    }
+
+    private void unstage(TrigramIndex index, Long id) {
+        TransactionCallbacks.afterCommit(() -> index.remove(id));
+    }
+}
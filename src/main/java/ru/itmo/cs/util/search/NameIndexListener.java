@@ -0,0 +1,37 @@
+package ru.itmo.cs.util.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Human;
+
+public class NameIndexListener {
+
+    // resolved lazily: listeners are created while the EntityManagerFactory is still being built
+    private final ObjectProvider<NameSearchHandler> nameSearchHandler;
+
+    public NameIndexListener(ObjectProvider<NameSearchHandler> nameSearchHandler) {
+        this.nameSearchHandler = nameSearchHandler;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof City city) {
+            nameSearchHandler.getObject().cityChanged(city.getId(), city.getName());
+        } else if (entity instanceof Human human) {
+            nameSearchHandler.getObject().humanChanged(human.getId(), human.getName());
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof City city) {
+            nameSearchHandler.getObject().cityRemoved(city.getId());
+        } else if (entity instanceof Human human) {
+            nameSearchHandler.getObject().humanRemoved(human.getId());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.itmo.cs.util.search;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface NameSearchHandler {
+    Optional<Set<Long>> findCityIds(String nameSubstring);
+    Optional<Set<Long>> findHumanIds(String nameSubstring);
+    void cityChanged(Long id, String name);
+    void cityRemoved(Long id);
+    void humanChanged(Long id, String name);
+    void humanRemoved(Long id);
+    void rebuild();
+}
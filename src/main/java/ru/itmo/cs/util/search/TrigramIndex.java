@@ -0,0 +1,133 @@
+package ru.itmo.cs.util.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    // an id may carry more than one text while a transaction that renamed it is still open
+    private final Map<Long, Set<String>> texts = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(Long id, String text) {
+        if (text == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (texts.computeIfAbsent(id, key -> new HashSet<>()).add(text)) {
+                for (String gram : grams(text)) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void retain(Long id, Collection<String> kept) {
+        lock.writeLock().lock();
+        try {
+            Set<String> previous = texts.remove(id);
+            if (previous != null) {
+                for (String text : previous) {
+                    for (String gram : grams(text)) {
+                        Set<Long> ids = postings.get(gram);
+                        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                            postings.remove(gram);
+                        }
+                    }
+                }
+            }
+            for (String text : kept) {
+                add(id, text);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        retain(id, Set.of());
+    }
+
+    public Set<String> get(Long id) {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(texts.getOrDefault(id, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids whose text contains the query, or an empty optional when the query
+     * is shorter than a trigram and the index cannot narrow the search.
+     */
+    public Optional<Set<Long>> search(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Optional.of(Set.of());
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                if (lists.stream().allMatch(ids -> ids.contains(id))
+                        && texts.get(id).stream().anyMatch(text -> text.contains(query))) {
+                    result.add(id);
+                }
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            texts.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.itmo.cs.util.spatial;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.repository.CityLocationView;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.service.CalculateDistanceService;
+import ru.itmo.cs.util.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Grid index over city positions, kept current by this node's writes. Writes from other nodes or plain
+ * SQL are not seen, so the index is also rebuilt from the table on a fixed interval.
+ */
+@Component
+@Slf4j
+public class DefaultSpatialIndexHandler implements SpatialIndexHandler {
+
+    private final CityRepository cityRepository;
+    private final CalculateDistanceService calculateDistanceService;
+    private final double cellSize;
+
+    private final Object rebuilding = new Object();
+    private volatile GridIndex index;
+    // changes applied while a rebuild reads the table, replayed onto the fresh index before the swap
+    private List<Consumer<GridIndex>> journal;
+
+    public DefaultSpatialIndexHandler(CityRepository cityRepository,
+                                      CalculateDistanceService calculateDistanceService,
+                                      @Value("${spatial.index.cell-size:8}") double cellSize) {
+        this.cityRepository = cityRepository;
+        this.calculateDistanceService = calculateDistanceService;
+        this.cellSize = cellSize;
+        this.index = new GridIndex(cellSize);
+    }
+
+    @Override
+    public List<SpatialMatch> findNearest(double x, double y, double z, int k,
+                                          Climate climate, Government government) {
+        return index.nearest(x, y, z, k, filter(climate, government), distance(x, y, z));
+    }
+
+    @Override
+    public List<SpatialMatch> findWithinRadius(double x, double y, double z, double radius, int limit,
+                                               Climate climate, Government government) {
+        return index.withinRadius(x, y, z, radius, limit, filter(climate, government), distance(x, y, z));
+    }
+
+    @Override
+    public void cityChanged(City city) {
+        Coordinates coordinates = city.getCoordinates();
+        if (coordinates == null) {
+            cityRemoved(city.getId());
+            return;
+        }
+        GridIndex.Entry entry = new GridIndex.Entry(city.getId(), coordinates.getId(),
+                coordinates.getX(), coordinates.getY(), city.getClimate(), city.getGovernment());
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.put(entry)));
+    }
+
+    @Override
+    public void cityChanged(CityLocationView location) {
+        GridIndex.Entry entry = entry(location);
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.put(entry)));
+    }
+
+    @Override
+    public void cityRemoved(Long cityId) {
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.remove(cityId)));
+    }
+
+    @Override
+    public void coordinatesChanged(Coordinates coordinates) {
+        Long id = coordinates.getId();
+        long x = coordinates.getX();
+        double y = coordinates.getY();
+        TransactionCallbacks.afterCommit(() -> apply(current -> current.move(id, x, y)));
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${spatial.index.rebuild-interval-ms:300000}",
+            fixedDelayString = "${spatial.index.rebuild-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                journal = new ArrayList<>();
+            }
+            // queries keep the old index until the new one is complete
+            GridIndex fresh = new GridIndex(cellSize);
+            boolean loaded = false;
+            try (Stream<CityLocationView> rows = cityRepository.streamLocations()) {
+                rows.forEach(row -> fresh.put(entry(row)));
+                loaded = true;
+            } finally {
+                synchronized (this) {
+                    if (loaded) {
+                        journal.forEach(change -> change.accept(fresh));
+                        index = fresh;
+                    }
+                    journal = null;
+                }
+            }
+            log.info("Spatial index rebuilt: {} cities", fresh.size());
+        }
+    }
+
+    private synchronized void apply(Consumer<GridIndex> change) {
+        change.accept(index);
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private static GridIndex.Entry entry(CityLocationView location) {
+        return new GridIndex.Entry(location.getId(), location.getCoordinatesId(),
+                location.getX(), location.getY(), location.getClimate(), location.getGovernment());
+    }
+
+    private static Predicate<GridIndex.Entry> filter(Climate climate, Government government) {
+        return entry -> (climate == null || climate == entry.climate())
+                && (government == null || government == entry.government());
+    }
+
+    private ToDoubleFunction<GridIndex.Entry> distance(double x, double y, double z) {
+        return entry -> calculateDistanceService.calculate(x, y, z, entry.x(), entry.y(), 0);
+    }
+}
@@ -0,0 +1,238 @@
+package ru.itmo.cs.util.spatial;
+
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Uniform grid over the (x, y) plane. Cities lie on z = 0, so a query point above the plane
+ * only adds a constant to every squared distance and the planar cell bounds stay valid.
+ */
+public class GridIndex {
+    private static final Comparator<SpatialMatch> BY_DISTANCE =
+            Comparator.comparingDouble(SpatialMatch::distance).thenComparing(SpatialMatch::cityId);
+
+    private final double cellSize;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // coordinates are shared between cities, so moving one row moves all of them
+    private final Map<Long, Set<Long>> byCoordinates = new HashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GridIndex(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Размер ячейки должен быть положительным");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            remove(entry.cityId());
+            entries.put(entry.cityId(), entry);
+            byCoordinates.computeIfAbsent(entry.coordinatesId(), key -> new HashSet<>()).add(entry.cityId());
+            cells.computeIfAbsent(key(cell(entry.x()), cell(entry.y())), key -> new ArrayList<>()).add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long cityId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(cityId);
+            if (previous == null) {
+                return;
+            }
+            Set<Long> cities = byCoordinates.get(previous.coordinatesId());
+            if (cities != null && cities.remove(cityId) && cities.isEmpty()) {
+                byCoordinates.remove(previous.coordinatesId());
+            }
+            long key = key(cell(previous.x()), cell(previous.y()));
+            List<Entry> cell = cells.get(key);
+            if (cell != null && cell.removeIf(entry -> entry.cityId().equals(cityId)) && cell.isEmpty()) {
+                cells.remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void move(Long coordinatesId, long x, double y) {
+        lock.writeLock().lock();
+        try {
+            for (Long cityId : List.copyOf(byCoordinates.getOrDefault(coordinatesId, Set.of()))) {
+                Entry entry = entries.get(cityId);
+                put(new Entry(cityId, coordinatesId, x, y, entry.climate(), entry.government()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Walks square rings of cells around the query and stops once the nearest possible point
+     * of the next ring is farther than the k-th match found so far.
+     */
+    public List<SpatialMatch> nearest(double x, double y, double z, int k,
+                                      Predicate<Entry> filter, ToDoubleFunction<Entry> distance) {
+        lock.readLock().lock();
+        try {
+            PriorityQueue<SpatialMatch> best = new PriorityQueue<>(k + 1, BY_DISTANCE.reversed());
+            long cx = cell(x);
+            long cy = cell(y);
+            for (long ring = 0; !cells.isEmpty(); ring++) {
+                if (best.size() == k && Math.hypot(Math.max(0, ring - 1) * cellSize, z) > best.peek().distance()) {
+                    break;
+                }
+                if (8 * ring > cells.size()) {
+                    // the ring has more cells than the grid holds, so visit the occupied ones directly
+                    for (Map.Entry<Long, List<Entry>> cell : cells.entrySet()) {
+                        if (ring(cell.getKey(), cx, cy) >= ring) {
+                            collect(cell.getValue(), filter, distance, best, k);
+                        }
+                    }
+                    break;
+                }
+                if (ring == 0) {
+                    visit(cx, cy, filter, distance, best, k);
+                    continue;
+                }
+                for (long dx = -ring; dx <= ring; dx++) {
+                    visit(cx + dx, cy - ring, filter, distance, best, k);
+                    visit(cx + dx, cy + ring, filter, distance, best, k);
+                }
+                for (long dy = -ring + 1; dy < ring; dy++) {
+                    visit(cx - ring, cy + dy, filter, distance, best, k);
+                    visit(cx + ring, cy + dy, filter, distance, best, k);
+                }
+            }
+            List<SpatialMatch> result = new ArrayList<>(best);
+            result.sort(BY_DISTANCE);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SpatialMatch> withinRadius(double x, double y, double z, double radius, int limit,
+                                           Predicate<Entry> filter, ToDoubleFunction<Entry> distance) {
+        if (radius < Math.abs(z)) {
+            return List.of();
+        }
+        double planar = Math.sqrt(radius * radius - z * z);
+        long minX = cell(x - planar);
+        long maxX = cell(x + planar);
+        long minY = cell(y - planar);
+        long maxY = cell(y + planar);
+
+        lock.readLock().lock();
+        try {
+            List<SpatialMatch> result = new ArrayList<>();
+            if ((double) (maxX - minX + 1) * (maxY - minY + 1) > cells.size()) {
+                for (Map.Entry<Long, List<Entry>> cell : cells.entrySet()) {
+                    long cellX = cell.getKey() >> 32;
+                    long cellY = (int) cell.getKey().longValue();
+                    if (cellX >= minX && cellX <= maxX && cellY >= minY && cellY <= maxY) {
+                        within(cell.getValue(), filter, distance, radius, result);
+                    }
+                }
+            } else {
+                for (long cellX = minX; cellX <= maxX; cellX++) {
+                    for (long cellY = minY; cellY <= maxY; cellY++) {
+                        within(cells.getOrDefault(key(cellX, cellY), List.of()), filter, distance, radius, result);
+                    }
+                }
+            }
+            result.sort(BY_DISTANCE);
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            byCoordinates.clear();
+            cells.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void visit(long cellX, long cellY, Predicate<Entry> filter, ToDoubleFunction<Entry> distance,
+                       PriorityQueue<SpatialMatch> best, int k) {
+        if (cellX >= Integer.MIN_VALUE && cellX <= Integer.MAX_VALUE
+                && cellY >= Integer.MIN_VALUE && cellY <= Integer.MAX_VALUE) {
+            collect(cells.getOrDefault(key(cellX, cellY), List.of()), filter, distance, best, k);
+        }
+    }
+
+    private static void collect(List<Entry> cell, Predicate<Entry> filter, ToDoubleFunction<Entry> distance,
+                                PriorityQueue<SpatialMatch> best, int k) {
+        for (Entry entry : cell) {
+            if (!filter.test(entry)) {
+                continue;
+            }
+            SpatialMatch match = new SpatialMatch(entry.cityId(), distance.applyAsDouble(entry));
+            if (best.size() < k) {
+                best.add(match);
+            } else if (BY_DISTANCE.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+    }
+
+    private static void within(List<Entry> cell, Predicate<Entry> filter, ToDoubleFunction<Entry> distance,
+                               double radius, List<SpatialMatch> result) {
+        for (Entry entry : cell) {
+            if (filter.test(entry)) {
+                double exact = distance.applyAsDouble(entry);
+                if (exact <= radius) {
+                    result.add(new SpatialMatch(entry.cityId(), exact));
+                }
+            }
+        }
+    }
+
+    private long cell(double coordinate) {
+        // y is unbounded, so far away points share the outermost cells
+        return (long) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, Math.floor(coordinate / cellSize)));
+    }
+
+    private static long ring(long key, long cx, long cy) {
+        return Math.max(Math.abs((key >> 32) - cx), Math.abs((int) key - cy));
+    }
+
+    private static long key(long cellX, long cellY) {
+        return (cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    public record Entry(Long cityId, Long coordinatesId, long x, double y, Climate climate, Government government) {
+    }
+}
@@ -0,0 +1,20 @@
+package ru.itmo.cs.util.spatial;
+
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.repository.CityLocationView;
+
+import java.util.List;
+
+public interface SpatialIndexHandler {
+    List<SpatialMatch> findNearest(double x, double y, double z, int k, Climate climate, Government government);
+    List<SpatialMatch> findWithinRadius(double x, double y, double z, double radius, int limit,
+                                        Climate climate, Government government);
+    void cityChanged(City city);
+    void cityChanged(CityLocationView location);
+    void cityRemoved(Long cityId);
+    void coordinatesChanged(Coordinates coordinates);
+    void rebuild();
+}
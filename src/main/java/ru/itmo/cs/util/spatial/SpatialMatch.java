@@ -0,0 +1,4 @@
+package ru.itmo.cs.util.spatial;
+
+public record SpatialMatch(Long cityId, double distance) {
+}
@@ -0,0 +1,12 @@
+-- PostgreSQL: indexes for the city list filters, matching the ones declared on the City entity.
+-- The application runs with ddl-auto=none, so run this once against the existing schema.
+-- CONCURRENTLY keeps the table writable while the indexes build; it cannot run inside a transaction.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_city_climate_government_standard
+    ON city (climate, government, standard_of_living);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_city_government_standard
+    ON city (government, standard_of_living);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_city_standard_of_living
+    ON city (standard_of_living);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_city_governor
+    ON city (governor_id);
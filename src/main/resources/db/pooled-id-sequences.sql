@@ -0,0 +1,37 @@
+-- PostgreSQL: moves id generation from IDENTITY columns to the sequences the entities use.
+-- Run once against the existing schema before deploying; existing ids are kept and every
+-- sequence starts right after the current maximum id of its table.
+
+-- Hibernate fills ids itself now, so the columns lose their generated defaults.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE coordinates ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE coordinates ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE human ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE human ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE city ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE city ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE city_audit ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE city_audit ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE human_audit ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE human_audit ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE coordinates_audit ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE coordinates_audit ALTER COLUMN id DROP DEFAULT;
+
+-- Pooled sequences hand out blocks of 50: the value returned by nextval is the top of the block.
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) FROM users) + 50, false);
+CREATE SEQUENCE IF NOT EXISTS coordinates_seq INCREMENT BY 50;
+SELECT setval('coordinates_seq', (SELECT COALESCE(MAX(id), 0) FROM coordinates) + 50, false);
+CREATE SEQUENCE IF NOT EXISTS human_seq INCREMENT BY 50;
+SELECT setval('human_seq', (SELECT COALESCE(MAX(id), 0) FROM human) + 50, false);
+CREATE SEQUENCE IF NOT EXISTS city_seq INCREMENT BY 50;
+SELECT setval('city_seq', (SELECT COALESCE(MAX(id), 0) FROM city) + 50, false);
+
+-- Audit rows are inserted by the batch audit writer with one nextval per row.
+CREATE SEQUENCE IF NOT EXISTS city_audit_seq INCREMENT BY 1;
+SELECT setval('city_audit_seq', (SELECT COALESCE(MAX(id), 0) FROM city_audit) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS human_audit_seq INCREMENT BY 1;
+SELECT setval('human_audit_seq', (SELECT COALESCE(MAX(id), 0) FROM human_audit) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS coordinates_audit_seq INCREMENT BY 1;
+SELECT setval('coordinates_audit_seq', (SELECT COALESCE(MAX(id), 0) FROM coordinates_audit) + 1, false);
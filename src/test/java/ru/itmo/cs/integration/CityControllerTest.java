@@ -1,16 +1,27 @@
 package ru.itmo.cs.integration;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.itmo.cs.dto.city.CityBulkUpdateDTO;
 import ru.itmo.cs.dto.city.CityDTO;
 import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
 import ru.itmo.cs.dto.human.HumanDTO;
@@ -18,13 +29,29 @@ import ru.itmo.cs.entity.City;
 import ru.itmo.cs.entity.Coordinates;
 import ru.itmo.cs.entity.Human;
 import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.audit.AuditOperation;
+import ru.itmo.cs.entity.audit.CityAudit;
 import ru.itmo.cs.entity.enums.*;
 import ru.itmo.cs.repository.CityRepository;
 import ru.itmo.cs.repository.CoordinatesRepository;
 import ru.itmo.cs.repository.HumanRepository;
 import ru.itmo.cs.repository.UserRepository;
+import ru.itmo.cs.service.CityBulkService;
+import ru.itmo.cs.service.CityImportService;
+import ru.itmo.cs.service.CsvImportService;
+import ru.itmo.cs.util.search.NameSearchHandler;
+import ru.itmo.cs.util.search.TrigramIndex;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -54,6 +81,27 @@ class CityControllerTest extends IntegrationTestBase {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private SpatialIndexHandler spatialIndexHandler;
+
+    @Autowired
+    private CityBulkService cityBulkService;
+
+    @Autowired
+    private CityImportService cityImportService;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private NameSearchHandler nameSearchHandler;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
     @MockBean
     private PasswordEncoder passwordEncoder;
 
@@ -131,6 +179,36 @@ class CityControllerTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.content[0].name").value(defaultCity.getName()));
     }
 
+    @Test
+    @DisplayName("Получение городов без подсчета общего количества")
+    void shouldGetCitiesWithoutCount() throws Exception {
+        String token = generateToken(defaultUser);
+        saveCity("Second City");
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("size", "1")
+                        .param("count", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Получение городов с оценкой общего количества")
+    void shouldGetCitiesWithEstimatedCount() throws Exception {
+        String token = generateToken(defaultUser);
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("count", "ESTIMATED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
     @Test
     @DisplayName("Успешное получение города по ID")
     void shouldGetCityByIdSuccessfully() throws Exception {
@@ -179,6 +257,166 @@ class CityControllerTest extends IntegrationTestBase {
         assertThat(createdCity.getName()).isEqualTo(newCity.getName());
     }
 
+    @Test
+    @DisplayName("Создание города ищет текущего пользователя один раз")
+    void shouldLookUpCurrentUserOncePerCreate() throws Exception {
+        CityDTO newCity = new CityDTO(
+                null, "Single Lookup", 200.0, 2000L, Climate.OCEANIC, Government.JUNTA,
+                new CoordinatesDTO(null, 200L, 200.5, null), true, 100L,
+                StandardOfLiving.HIGH, null, new HumanDTO(null, "Lookup Governor", 50,
+                185, null, null), null, null
+        );
+        entityManager.flush();
+        entityManager.clear();
+        // пользователь из токена уже в кэше, считаются только обращения сервисов
+        userDetailsService.loadUserByUsername(defaultUser.getUsername());
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/cities")
+                        .header("Authorization", generateToken(defaultUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newCity)))
+                .andExpect(status().isCreated());
+
+        long userLookups = Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains("from users"))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+        assertThat(userLookups).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Создание города со ссылками на существующие координаты и губернатора по id")
+    void shouldLinkExistingCoordinatesAndGovernorById() throws Exception {
+        String body = "{\"name\":\"Linked City\",\"area\":20.0,\"population\":300,\"government\":\"JUNTA\"," +
+                "\"capital\":false,\"metersAboveSeaLevel\":3,\"coordinates\":{\"id\":%d},\"governor\":{\"id\":%d}}";
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post("/api/cities")
+                        .header("Authorization", generateToken(defaultUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted(defaultCoordinates.getId(), defaultGovernor.getId())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.coordinates.id").value(defaultCoordinates.getId()))
+                .andExpect(jsonPath("$.governor.name").value(defaultGovernor.getName()));
+        entityManager.flush();
+
+        // только сам город, связанные строки не перезаписываются
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Ссылка на несуществующего губернатора")
+    void shouldRejectLinkToMissingGovernor() throws Exception {
+        String body = "{\"name\":\"Linked City\",\"area\":20.0,\"population\":300,\"government\":\"JUNTA\"," +
+                "\"capital\":false,\"metersAboveSeaLevel\":3,\"coordinates\":{\"id\":%d},\"governor\":{\"id\":%d}}";
+
+        mockMvc.perform(post("/api/cities")
+                        .header("Authorization", generateToken(defaultUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted(defaultCoordinates.getId(), Long.MAX_VALUE)))
+                .andExpect(status().isNotFound());
+        // отклоненный город остается в общей с тестом транзакции
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("Агрегаты высоты и климата обновляются при создании и удалении города")
+    void shouldUpdateAggregatesOnCreateAndDelete() throws Exception {
+        String token = generateToken(defaultUser);
+        long sumBefore = getLong(get("/api/cities/sum-meters-above-sea-level"), token);
+        long steppeBefore = getLong(get("/api/cities/climate-count").param("climate", "STEPPE"), token);
+
+        CityDTO newCity = new CityDTO(
+                null, "Polar City", 200.0, 2000L, Climate.POLAR_ICECAP, Government.JUNTA,
+                new CoordinatesDTO(null, 200L, 200.5, null), false, 120L,
+                StandardOfLiving.HIGH, null, new HumanDTO(null, "Polar Governor", 50,
+                185, null, null), null, null
+        );
+        MvcResult result = mockMvc.perform(post("/api/cities")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newCity)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long createdId = objectMapper.readValue(result.getResponse().getContentAsString(), CityDTO.class).getId();
+
+        assertThat(getLong(get("/api/cities/sum-meters-above-sea-level"), token)).isEqualTo(sumBefore + 120);
+        assertThat(getLong(get("/api/cities/climate-count").param("climate", "STEPPE"), token))
+                .isEqualTo(steppeBefore + 1);
+
+        mockMvc.perform(delete("/api/cities/{id}", createdId)
+                        .header("Authorization", token))
+                .andExpect(status().isNoContent());
+
+        assertThat(getLong(get("/api/cities/sum-meters-above-sea-level"), token)).isEqualTo(sumBefore);
+        assertThat(getLong(get("/api/cities/climate-count").param("climate", "STEPPE"), token))
+                .isEqualTo(steppeBefore);
+    }
+
+    @Test
+    @DisplayName("Поиск ближайших городов и городов в радиусе с фильтрами")
+    void shouldFindNearestCitiesAndCitiesWithinRadius() throws Exception {
+        String token = generateToken(defaultUser);
+        City steppeCity = saveCityWithOwnRelations(1);
+        steppeCity.setClimate(Climate.STEPPE);
+        cityRepository.save(steppeCity);
+        // the index is only updated after commit, and test transactions are rolled back
+        spatialIndexHandler.rebuild();
+
+        mockMvc.perform(get("/api/cities/nearest")
+                        .header("Authorization", token)
+                        .param("x", "100")
+                        .param("y", "50")
+                        .param("k", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].city.id").value(defaultCity.getId()))
+                .andExpect(jsonPath("$[0].distance").value(0.0));
+
+        mockMvc.perform(get("/api/cities/nearest")
+                        .header("Authorization", token)
+                        .param("x", "100")
+                        .param("y", "50")
+                        .param("climate", "STEPPE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].city.id").value(steppeCity.getId()));
+
+        mockMvc.perform(get("/api/cities/within-radius")
+                        .header("Authorization", token)
+                        .param("x", "100")
+                        .param("y", "50")
+                        .param("z", "3")
+                        .param("radius", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].distance").value(3.0));
+
+        mockMvc.perform(get("/api/cities/nearest")
+                        .header("Authorization", token)
+                        .param("x", "100")
+                        .param("y", "50")
+                        .param("k", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long getLong(MockHttpServletRequestBuilder request, String token) throws Exception {
+        String body = mockMvc.perform(request.header("Authorization", token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(body);
+    }
+
     @Test
     @DisplayName("Ошибка при создании города с некорректной площадью")
     void shouldFailToCreateCityWithInvalidArea() throws Exception {
@@ -221,6 +459,129 @@ class CityControllerTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.area").value(updatedCity.getArea()));
     }
 
+    @Test
+    @DisplayName("Частичное обновление города меняет только переданные поля")
+    void shouldPatchOnlyGivenFields() throws Exception {
+        long updates = countEntityUpdates(patch("/api/cities/{id}", defaultCity.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"population\":2000,\"governor\":{\"age\":61}}"));
+
+        City patchedCity = cityRepository.findById(defaultCity.getId()).orElseThrow();
+        assertThat(patchedCity.getPopulation()).isEqualTo(2000L);
+        assertThat(patchedCity.getName()).isEqualTo("Default City");
+        assertThat(patchedCity.getCoordinates().getId()).isEqualTo(defaultCoordinates.getId());
+        assertThat(patchedCity.getGovernor().getId()).isEqualTo(defaultGovernor.getId());
+        assertThat(patchedCity.getGovernor().getAge()).isEqualTo(61);
+        assertThat(patchedCity.getGovernor().getName()).isEqualTo(defaultGovernor.getName());
+        // город и губернатор, координаты не изменились
+        assertThat(updates).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Обновление без изменений не пишет ни город, ни связанные объекты")
+    void shouldSkipWritesForUnchangedUpdate() throws Exception {
+        CityDTO unchangedCity = new CityDTO(
+                defaultCity.getId(), defaultCity.getName(), defaultCity.getArea(), defaultCity.getPopulation(),
+                defaultCity.getClimate(), defaultCity.getGovernment(),
+                new CoordinatesDTO(defaultCoordinates.getId(), defaultCoordinates.getX(), defaultCoordinates.getY(), null),
+                defaultCity.getCapital(), defaultCity.getMetersAboveSeaLevel(), defaultCity.getStandardOfLiving(),
+                defaultCity.getEstablishmentDate(), new HumanDTO(defaultGovernor.getId(), defaultGovernor.getName(),
+                defaultGovernor.getAge(), defaultGovernor.getHeight(), defaultGovernor.getBirthday(), null), null, null
+        );
+
+        long updates = countEntityUpdates(put("/api/cities/{id}", defaultCity.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(unchangedCity)));
+
+        assertThat(updates).isZero();
+    }
+
+    @Test
+    @DisplayName("Частичное обновление с некорректным значением")
+    void shouldRejectInvalidPatch() throws Exception {
+        mockMvc.perform(patch("/api/cities/{id}", defaultCity.getId())
+                        .header("Authorization", generateToken(defaultUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"population\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Без режима одного узла поиск по названию не зависит от индекса в памяти")
+    void shouldFindCitiesUnknownToNameIndex() throws Exception {
+        City remote = saveCity("Remote Town");
+        entityManager.flush();
+        Object nameSearch = AopTestUtils.getTargetObject(nameSearchHandler);
+        // город записан в обход этого узла: индекс о нем не знает
+        ((TrigramIndex) ReflectionTestUtils.getField(nameSearch, "cityNames")).remove(remote.getId());
+        ReflectionTestUtils.setField(nameSearch, "singleNode", false);
+
+        try {
+            mockMvc.perform(get("/api/cities")
+                            .header("Authorization", generateToken(defaultUser))
+                            .param("name", "mote To"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.length()").value(1))
+                    .andExpect(jsonPath("$.content[0].id").value(remote.getId()));
+        } finally {
+            ReflectionTestUtils.setField(nameSearch, "singleNode", true);
+        }
+    }
+
+    @Test
+    @DisplayName("Шаблоны LIKE в поиске по названию работают и при включенном индексе")
+    void shouldKeepLikeWildcardsWithNameIndex() throws Exception {
+        City santa = saveCity("Santa Town");
+        entityManager.flush();
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", generateToken(defaultUser))
+                        .param("name", "Sa_ta%wn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(santa.getId()));
+    }
+
+    @Test
+    @DisplayName("Поиск по подстроке в названии города и имени губернатора после переименования")
+    void shouldSearchCitiesBySubstringAfterRename() throws Exception {
+        String token = generateToken(defaultUser);
+
+        CityDTO renamedCity = new CityDTO(
+                defaultCity.getId(), "Renamed Metropolis", 100.0, 1000L, Climate.OCEANIC,
+                Government.JUNTA, new CoordinatesDTO(defaultCoordinates.getId(), 100L, 50.0, null),
+                true, 50L, null,
+                null, new HumanDTO(defaultGovernor.getId(), "Renamed Mayor", 45,
+                180, null, null), null, null
+        );
+
+        mockMvc.perform(put("/api/cities/{id}", defaultCity.getId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(renamedCity)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("name", "tropol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(defaultCity.getId()));
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("governorName", "d May"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("name", "Default"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.totalItems").value(0));
+    }
+
     @Test
     @DisplayName("Успешное удаление города")
     void shouldDeleteCitySuccessfully() throws Exception {
@@ -262,5 +623,581 @@ class CityControllerTest extends IntegrationTestBase {
                         .header("Authorization", token))
                 .andExpect(status().isForbidden());
     }
-}
 
+    @Test
+    @DisplayName("Успешный обход городов курсорной пагинацией в обе стороны")
+    void shouldScrollCitiesWithKeysetPagination() throws Exception {
+        String token = generateToken(defaultUser);
+        for (String name : List.of("Bravo", "Alpha", "Echo", "Charlie")) {
+            saveCity(name);
+        }
+
+        List<String> names = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/cities")
+                    .header("Authorization", token)
+                    .param("size", "2")
+                    .param("sortBy", "name")
+                    .param("sortDir", "asc");
+            request = cursor == null ? request.param("keyset", "true") : request.param("cursor", cursor);
+
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("content").forEach(city -> names.add(city.get("name").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            cursors.add(page.get("prevCursor").isNull() ? null : page.get("prevCursor").asText());
+        } while (cursor != null);
+
+        assertThat(names).containsExactly("Alpha", "Bravo", "Charlie", "Default City", "Echo");
+        assertThat(cursors.get(0)).isNull();
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("size", "2")
+                        .param("cursor", cursors.get(cursors.size() - 1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Charlie"))
+                .andExpect(jsonPath("$.content[1].name").value("Default City"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(jsonPath("$.totalItems").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Курсорная пагинация ставит города без климата в конец")
+    void shouldScrollCitiesWithNullSortKeyLast() throws Exception {
+        String token = generateToken(defaultUser);
+        City withoutClimate = saveCity("No Climate");
+        withoutClimate.setClimate(null);
+        cityRepository.save(withoutClimate);
+        City steppe = saveCity("Steppe City");
+        steppe.setClimate(Climate.STEPPE);
+        cityRepository.save(steppe);
+
+        String firstPage = mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("keyset", "true")
+                        .param("size", "2")
+                        .param("sortBy", "climate")
+                        .param("sortDir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Steppe City"))
+                .andExpect(jsonPath("$.content[1].name").value("Default City"))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("No Climate"))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ошибка при передаче некорректного курсора")
+    void shouldFailToScrollCitiesWithInvalidCursor() throws Exception {
+        String token = generateToken(defaultUser);
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Фильтрация городов по климату, правительству и уровню жизни")
+    void shouldFilterCitiesByEnumFields() throws Exception {
+        String token = generateToken(defaultUser);
+        City steppeCity = saveCity("Steppe City");
+        steppeCity.setClimate(Climate.STEPPE);
+        steppeCity.setStandardOfLiving(StandardOfLiving.HIGH);
+        cityRepository.save(steppeCity);
+        City republicCity = saveCity("Republic City");
+        republicCity.setClimate(Climate.STEPPE);
+        republicCity.setGovernment(Government.REPUBLIC);
+        republicCity.setStandardOfLiving(StandardOfLiving.HIGH);
+        cityRepository.save(republicCity);
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("climate", "STEPPE")
+                        .param("government", "JUNTA")
+                        .param("standardOfLiving", "HIGH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Steppe City"))
+                .andExpect(jsonPath("$.totalItems").value(1));
+
+        mockMvc.perform(get("/api/cities")
+                        .header("Authorization", token)
+                        .param("climate", "STEPPE")
+                        .param("count", "NONE")
+                        .param("size", "1")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].name").value("Steppe City"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("Количество SQL-запросов для страницы городов не зависит от её размера")
+    void shouldLoadCitiesPageWithConstantStatementCount() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            saveCityWithOwnRelations(i);
+        }
+
+        long smallPage = countStatements(get("/api/cities").param("size", "2"));
+        long fullPage = countStatements(get("/api/cities").param("size", "11"));
+        long filteredPage = countStatements(get("/api/cities")
+                .param("size", "11")
+                .param("governorName", "Governor"));
+        long keysetPage = countStatements(get("/api/cities")
+                .param("size", "11")
+                .param("keyset", "true"));
+
+        // страница и подсчёт общего числа
+        assertThat(smallPage).isEqualTo(2);
+        assertThat(fullPage).isEqualTo(smallPage);
+        assertThat(filteredPage).isEqualTo(smallPage);
+        assertThat(keysetPage).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Вставки отправляются одним пакетом с идентификаторами из пула последовательности")
+    void shouldBatchInsertsWithPooledIds() {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 20; i++) {
+            Coordinates coordinates = new Coordinates();
+            coordinates.setX(i + 1L);
+            coordinates.setY((double) i);
+            coordinates.setCreatedBy(defaultUser);
+            coordinatesRepository.save(coordinates);
+        }
+        entityManager.flush();
+
+        // не больше одного обращения к последовательности и один пакетный INSERT
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(20);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Потоковый импорт городов с построчным результатом и общими координатами")
+    void shouldImportCitiesFromNdjson() throws Exception {
+        String token = generateToken(defaultUser);
+        long coordinatesBefore = coordinatesRepository.count();
+        long humansBefore = humanRepository.count();
+        String city = "{\"name\":\"%s\",\"area\":10.0,\"population\":100,\"government\":\"JUNTA\",\"capital\":false," +
+                "\"metersAboveSeaLevel\":5,\"coordinates\":{\"x\":300,\"y\":10.0},\"governor\":{\"name\":\"Import Mayor\",\"age\":40,\"height\":170}}";
+        String body = String.join("\n",
+                city.formatted("First Import"),
+                city.formatted(""),
+                city.formatted("Second Import"),
+                "{\"name\":\"Broken\",\"climate\":\"NOPE\"}");
+
+        String response = mockMvc.perform(post("/api/cities/import")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        assertThat(results).extracting(result -> result.get("status").asText())
+                .containsExactly("CREATED", "REJECTED", "CREATED", "REJECTED");
+        assertThat(results.get(1).get("error").asText()).startsWith("name:");
+
+        City first = cityRepository.findById(results.get(0).get("id").asLong()).orElseThrow();
+        City second = cityRepository.findById(results.get(2).get("id").asLong()).orElseThrow();
+        assertThat(first.getCoordinates().getId()).isEqualTo(second.getCoordinates().getId());
+        assertThat(first.getGovernor().getId()).isEqualTo(second.getGovernor().getId());
+        assertThat(coordinatesRepository.count()).isEqualTo(coordinatesBefore + 1);
+        assertThat(humanRepository.count()).isEqualTo(humansBefore + 1);
+    }
+
+    @Test
+    @DisplayName("Импорт по частям не накапливает сохраненные сущности в контексте персистентности")
+    void shouldKeepPersistenceContextBoundedDuringImport() throws Exception {
+        String token = generateToken(defaultUser);
+        long citiesBefore = cityRepository.count();
+        String city = "{\"name\":\"Bulk Import %1$d\",\"area\":10.0,\"population\":100,\"government\":\"JUNTA\"," +
+                "\"capital\":false,\"metersAboveSeaLevel\":5,\"coordinates\":{\"x\":%1$d,\"y\":10.0}," +
+                "\"governor\":{\"name\":\"Bulk Mayor %1$d\",\"age\":40,\"height\":170}}";
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add(city.formatted(i + 1));
+        }
+        int chunkSize = (int) ReflectionTestUtils.getField(cityImportService, "chunkSize");
+        ReflectionTestUtils.setField(cityImportService, "chunkSize", 2);
+        try {
+            String response = mockMvc.perform(post("/api/cities/import")
+                            .header("Authorization", token)
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(String.join("\n", lines)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            assertThat(response.split("\n")).hasSize(20).allMatch(line -> line.contains("CREATED"));
+        } finally {
+            ReflectionTestUtils.setField(cityImportService, "chunkSize", chunkSize);
+        }
+
+        // 10 частей по городу, координатам и губернатору в каждой строке
+        int managed = entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+        assertThat(managed).isLessThanOrEqualTo(6);
+        assertThat(cityRepository.count()).isEqualTo(citiesBefore + 20);
+    }
+
+    @Test
+    @DisplayName("Импорт городов из CSV с отчетом об отклоненных строках")
+    void shouldImportCitiesFromCsv() throws Exception {
+        String token = generateToken(defaultUser);
+        long citiesBefore = cityRepository.count();
+        String csv = String.join("\n",
+                "name,area,population,climate,government,capital,metersAboveSeaLevel,standardOfLiving," +
+                        "establishmentDate,coordinates.x,coordinates.y,governor.name,governor.age,governor.height,governor.birthday",
+                "\"Csv, First\",10.0,100,rain_forest,JUNTA,false,5,,2020-01-01T00:00:00,300,10.0,Csv Mayor,40,170,",
+                "Csv Second,12.5,200,,JUNTA,true,7,,,301,11.0,\"Csv\nMayor\",41,171,2000-01-01T00:00:00Z",
+                "Csv Broken,10.0,many,,JUNTA,false,5,,,300,10.0,Csv Mayor,40,170,",
+                "Csv Invalid,10.0,0,,JUNTA,false,5,,,300,10.0,Csv Mayor,40,170,");
+        MockMultipartFile file = new MockMultipartFile("file", "cities.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/cities/import/csv")
+                        .file(file)
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("CITIES"))
+                .andExpect(jsonPath("$.rows").value(4))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.failed").value(0))
+                .andExpect(jsonPath("$.errors.length()").value(2));
+
+        assertThat(cityRepository.count()).isEqualTo(citiesBefore + 2);
+        assertThat(cityRepository.findAll()).extracting(City::getName).contains("Csv, First", "Csv Second");
+    }
+
+    @Test
+    @DisplayName("Импорт CSV по частям не накапливает сохраненные сущности в контексте персистентности")
+    void shouldKeepPersistenceContextBoundedDuringCsvImport() throws Exception {
+        String token = generateToken(defaultUser);
+        long citiesBefore = cityRepository.count();
+        List<String> lines = new ArrayList<>();
+        lines.add("name,area,population,climate,government,capital,metersAboveSeaLevel,standardOfLiving," +
+                "establishmentDate,coordinates.x,coordinates.y,governor.name,governor.age,governor.height,governor.birthday");
+        for (int i = 1; i <= 20; i++) {
+            lines.add("Csv Bulk %1$d,10.0,100,,JUNTA,false,5,,,%1$d,10.0,Csv Bulk Mayor %1$d,40,170,".formatted(i));
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "cities.csv", "text/csv",
+                String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+        int chunkSize = (int) ReflectionTestUtils.getField(csvImportService, "chunkSize");
+        ReflectionTestUtils.setField(csvImportService, "chunkSize", 2);
+        try {
+            mockMvc.perform(multipart("/api/cities/import/csv")
+                            .file(file)
+                            .header("Authorization", token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(20));
+        } finally {
+            ReflectionTestUtils.setField(csvImportService, "chunkSize", chunkSize);
+        }
+
+        int managed = entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+        assertThat(managed).isLessThanOrEqualTo(6);
+        assertThat(cityRepository.count()).isEqualTo(citiesBefore + 20);
+    }
+
+    @Test
+    @DisplayName("Импорт CSV сверх лимита одновременных импортов отклоняется с кодом 429")
+    void shouldRejectCsvImportOverConcurrencyLimit() throws Exception {
+        String token = generateToken(defaultUser);
+        MockMultipartFile file = new MockMultipartFile("file", "cities.csv", "text/csv",
+                "name,area\nCity,1.0".getBytes(StandardCharsets.UTF_8));
+        Semaphore imports = (Semaphore) ReflectionTestUtils.getField(csvImportService, "imports");
+        int permits = imports.drainPermits();
+        try {
+            mockMvc.perform(multipart("/api/cities/import/csv")
+                            .file(file)
+                            .header("Authorization", token))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"));
+        } finally {
+            imports.release(permits);
+        }
+    }
+
+    @Test
+    @DisplayName("Импорт CSV без обязательных колонок")
+    void shouldRejectCsvWithoutRequiredColumns() throws Exception {
+        String token = generateToken(defaultUser);
+        MockMultipartFile file = new MockMultipartFile("file", "cities.csv", "text/csv",
+                "name,area\nCity,1.0".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/api/cities/import/csv")
+                        .file(file)
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Очистка города выполняет одинаковое число запросов независимо от длины истории")
+    void shouldPurgeCityInConstantNumberOfStatements() throws Exception {
+        City shortHistory = saveCity("Short History");
+        City longHistory = saveCity("Long History");
+        saveCityAudits(shortHistory, 1);
+        saveCityAudits(longHistory, 200);
+
+        long shortPurge = countPurgeStatements(shortHistory.getId());
+        long longPurge = countPurgeStatements(longHistory.getId());
+
+        assertThat(longPurge).isEqualTo(shortPurge);
+        assertThat(cityRepository.existsById(longHistory.getId())).isFalse();
+        assertThat(entityManager.createQuery("SELECT COUNT(a) FROM CityAudit a", Long.class).getSingleResult()).isZero();
+        // координаты и губернатор остаются у города по умолчанию
+        assertThat(coordinatesRepository.existsById(defaultCoordinates.getId())).isTrue();
+        assertThat(humanRepository.existsById(defaultGovernor.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Очистка города удаляет его координаты и губернатора, если они больше нигде не используются")
+    void shouldPurgeOrphanedCoordinatesAndGovernor() throws Exception {
+        saveCityAudits(defaultCity, 3);
+
+        countPurgeStatements(defaultCity.getId());
+
+        assertThat(cityRepository.existsById(defaultCity.getId())).isFalse();
+        assertThat(coordinatesRepository.existsById(defaultCoordinates.getId())).isFalse();
+        assertThat(humanRepository.existsById(defaultGovernor.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Массовое удаление по фильтру удаляет только свои города порциями с отчетом о прогрессе")
+    void shouldDeleteMatchingOwnCitiesInChunks() throws Exception {
+        City first = saveCity("Bulk First");
+        City second = saveCity("Bulk Second");
+        City steppe = saveCity("Bulk Steppe");
+        steppe.setClimate(Climate.STEPPE);
+        cityRepository.save(steppe);
+        City foreign = saveCityWithOwnRelations(1);
+        saveCityAudits(first, 5);
+        ReflectionTestUtils.setField(cityBulkService, "chunkSize", 2);
+
+        String response;
+        try {
+            response = mockMvc.perform(delete("/api/cities")
+                            .header("Authorization", generateToken(defaultUser))
+                            .param("government", "JUNTA")
+                            .param("climate", "OCEANIC"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        } finally {
+            ReflectionTestUtils.setField(cityBulkService, "chunkSize", 1000);
+        }
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        // две порции по два города, затем итог
+        assertThat(lines).extracting(line -> line.get("affected").asLong()).containsExactly(2L, 3L, 3L);
+        assertThat(lines.get(lines.size() - 1).get("done").asBoolean()).isTrue();
+        assertThat(cityRepository.existsById(defaultCity.getId())).isFalse();
+        assertThat(cityRepository.existsById(first.getId())).isFalse();
+        assertThat(cityRepository.existsById(second.getId())).isFalse();
+        assertThat(cityRepository.existsById(steppe.getId())).isTrue();
+        assertThat(cityRepository.existsById(foreign.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Массовое удаление без фильтра отклоняется")
+    void shouldRejectBulkDeleteWithoutFilter() throws Exception {
+        mockMvc.perform(delete("/api/cities")
+                        .header("Authorization", generateToken(defaultUser)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(cityRepository.existsById(defaultCity.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Массовое изменение по фильтру меняет только свои города и пишет аудит одной вставкой")
+    void shouldUpdateMatchingOwnCitiesInChunks() throws Exception {
+        City first = saveCity("Bulk First");
+        City second = saveCity("Bulk Second");
+        City foreign = saveCityWithOwnRelations(1);
+        CityBulkUpdateDTO fields = new CityBulkUpdateDTO(null, null, StandardOfLiving.HIGH, null);
+        ReflectionTestUtils.setField(cityBulkService, "chunkSize", 2);
+
+        String response;
+        try {
+            response = mockMvc.perform(patch("/api/cities")
+                            .header("Authorization", generateToken(defaultUser))
+                            .param("government", "JUNTA")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(fields)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        } finally {
+            ReflectionTestUtils.setField(cityBulkService, "chunkSize", 1000);
+        }
+        entityManager.clear();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        // измененные города по-прежнему подходят под фильтр, но второй раз не обрабатываются
+        assertThat(lines).extracting(line -> line.get("affected").asLong()).containsExactly(2L, 3L, 3L);
+        assertThat(lines.get(lines.size() - 1).get("done").asBoolean()).isTrue();
+        for (City city : List.of(defaultCity, first, second)) {
+            City updated = cityRepository.findById(city.getId()).orElseThrow();
+            assertThat(updated.getStandardOfLiving()).isEqualTo(StandardOfLiving.HIGH);
+            assertThat(updated.getGovernment()).isEqualTo(Government.JUNTA);
+            assertThat(countAudits(city, AuditOperation.UPDATE)).isEqualTo(1);
+        }
+        assertThat(cityRepository.findById(foreign.getId()).orElseThrow().getStandardOfLiving()).isNull();
+        assertThat(countAudits(foreign, AuditOperation.UPDATE)).isZero();
+    }
+
+    @Test
+    @DisplayName("Массовое изменение без полей для изменения отклоняется")
+    void shouldRejectBulkUpdateWithoutFields() throws Exception {
+        mockMvc.perform(patch("/api/cities")
+                        .header("Authorization", generateToken(defaultUser))
+                        .param("government", "JUNTA")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("CORS разрешает PATCH для массового обновления из браузера")
+    void shouldAllowPatchInCorsPreflight() throws Exception {
+        mockMvc.perform(options("/api/cities")
+                        .header("Origin", "http://localhost:3000")
+                        .header("Access-Control-Request-Method", "PATCH"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Access-Control-Allow-Methods", containsString("PATCH")));
+    }
+
+    private long countAudits(City city, AuditOperation operation) {
+        return entityManager.createQuery(
+                        "SELECT COUNT(a) FROM CityAudit a WHERE a.city.id = :cityId AND a.operation = :operation", Long.class)
+                .setParameter("cityId", city.getId())
+                .setParameter("operation", operation)
+                .getSingleResult();
+    }
+
+    private void saveCityAudits(City city, int count) {
+        for (int i = 0; i < count; i++) {
+            CityAudit audit = new CityAudit();
+            audit.setCity(city);
+            audit.setUser(defaultUser);
+            audit.setOperation(AuditOperation.UPDATE);
+            audit.setOperationTime(LocalDateTime.now());
+            entityManager.persist(audit);
+        }
+    }
+
+    private long countPurgeStatements(Long id) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        // пользователь из токена уже в кэше, считаются только запросы самого обработчика
+        userDetailsService.loadUserByUsername(defaultUser.getUsername());
+        statistics.clear();
+
+        mockMvc.perform(delete("/api/cities/{id}/purge", id)
+                        .header("Authorization", generateToken(defaultUser)))
+                .andExpect(status().isNoContent());
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        // пользователь из токена уже в кэше, считаются только запросы самого обработчика
+        userDetailsService.loadUserByUsername(defaultUser.getUsername());
+        statistics.clear();
+
+        mockMvc.perform(request.header("Authorization", generateToken(defaultUser)))
+                .andExpect(status().isOk());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countEntityUpdates(MockHttpServletRequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(request.header("Authorization", generateToken(defaultUser)))
+                .andExpect(status().isOk());
+        entityManager.flush();
+        entityManager.clear();
+
+        return statistics.getEntityUpdateCount();
+    }
+
+    private City saveCityWithOwnRelations(int index) {
+        User owner = new User();
+        owner.setUsername("owner" + index);
+        owner.setPassword("encodedPassword");
+        owner.setRole(UserRole.USER);
+        owner.setAdminRequestStatus(AdminRequestStatus.NONE);
+        owner = userRepository.save(owner);
+
+        Coordinates coordinates = new Coordinates();
+        coordinates.setX(index + 1L);
+        coordinates.setY((double) index);
+        coordinates.setCreatedBy(owner);
+        coordinates = coordinatesRepository.save(coordinates);
+
+        Human governor = new Human();
+        governor.setName("Governor " + index);
+        governor.setAge(40);
+        governor.setHeight(175);
+        governor.setCreatedBy(owner);
+        governor = humanRepository.save(governor);
+
+        City city = saveCity("City " + index);
+        city.setCoordinates(coordinates);
+        city.setGovernor(governor);
+        city.setCreatedBy(owner);
+        return cityRepository.save(city);
+    }
+
+    private City saveCity(String name) {
+        City city = new City();
+        city.setName(name);
+        city.setArea(100.0);
+        city.setPopulation(1000L);
+        city.setClimate(Climate.OCEANIC);
+        city.setGovernment(Government.JUNTA);
+        city.setCoordinates(defaultCoordinates);
+        city.setGovernor(defaultGovernor);
+        city.setCapital(false);
+        city.setMetersAboveSeaLevel(10);
+        city.setCreatedBy(defaultUser);
+        return cityRepository.save(city);
+    }
+}
@@ -242,4 +242,32 @@ class CoordinatesControllerTest extends IntegrationTestBase {
                         .header("Authorization", token))
                 .andExpect(status().isConflict());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Успешный обход координат курсорной пагинацией")
+    void shouldScrollCoordinatesWithKeysetPagination() throws Exception {
+        String token = generateToken(defaultUser);
+        Coordinates second = new Coordinates();
+        second.setX(10L);
+        second.setY(5.0);
+        second.setCreatedBy(defaultUser);
+        second = coordinatesRepository.save(second);
+
+        String firstPage = mockMvc.perform(get("/api/coordinates")
+                        .header("Authorization", token)
+                        .param("keyset", "true")
+                        .param("size", "1")
+                        .param("sortBy", "x")
+                        .param("sortDir", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(second.getId()))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/coordinates")
+                        .header("Authorization", token)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(defaultCoordinates.getId()))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+}
@@ -227,4 +227,33 @@ class HumanControllerTest extends IntegrationTestBase {
                         .header("Authorization", token))
                 .andExpect(status().isConflict());
     }
+
+    @Test
+    @DisplayName("Успешный обход людей курсорной пагинацией")
+    void shouldScrollHumansWithKeysetPagination() throws Exception {
+        String token = generateToken(defaultUser);
+        Human second = new Human();
+        second.setName("Second Human");
+        second.setAge(40);
+        second.setHeight(170);
+        second.setCreatedBy(defaultUser);
+        second = humanRepository.save(second);
+
+        String firstPage = mockMvc.perform(get("/api/humans")
+                        .header("Authorization", token)
+                        .param("keyset", "true")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(second.getId()))
+                .andExpect(jsonPath("$.prevCursor").isEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/humans")
+                        .header("Authorization", token)
+                        .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(defaultHuman.getId()))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.prevCursor").isNotEmpty());
+    }
 }
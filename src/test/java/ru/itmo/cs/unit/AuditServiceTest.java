@@ -10,6 +10,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.itmo.cs.entity.City;
 import ru.itmo.cs.entity.Coordinates;
 import ru.itmo.cs.entity.Human;
+import ru.itmo.cs.entity.User;
 import ru.itmo.cs.entity.audit.AuditOperation;
 import ru.itmo.cs.entity.audit.CityAudit;
 import ru.itmo.cs.entity.audit.CoordinatesAudit;
@@ -19,6 +20,9 @@ import ru.itmo.cs.repository.audit.CoordinatesAuditRepository;
 import ru.itmo.cs.repository.audit.HumanAuditRepository;
 import ru.itmo.cs.service.AuditService;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.audit.AuditRecord;
+import ru.itmo.cs.util.audit.AuditTarget;
+import ru.itmo.cs.util.audit.AuditWriter;
 
 import static org.mockito.Mockito.*;
 
@@ -40,6 +44,9 @@ class AuditServiceTest {
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private AuditWriter auditWriter;
+
     private City city;
     private Human human;
     private Coordinates coordinates;
@@ -49,6 +56,9 @@ class AuditServiceTest {
 
     @BeforeEach
     void setUp() {
+        User user = new User();
+        user.setId(1L);
+
         city = new City();
         city.setId(1L);
         city.setName("Test City");
@@ -64,16 +74,19 @@ class AuditServiceTest {
 
         cityAudit = new CityAudit();
         cityAudit.setId(1L);
+        cityAudit.setUser(user);
         cityAudit.setCity(city);
         cityAudit.setOperation(AuditOperation.CREATE);
 
         humanAudit = new HumanAudit();
         humanAudit.setId(1L);
+        humanAudit.setUser(user);
         humanAudit.setHuman(human);
         humanAudit.setOperation(AuditOperation.UPDATE);
 
         coordinatesAudit = new CoordinatesAudit();
         coordinatesAudit.setId(1L);
+        coordinatesAudit.setUser(user);
         coordinatesAudit.setCoordinates(coordinates);
         coordinatesAudit.setOperation(AuditOperation.CREATE);
     }
@@ -83,14 +96,13 @@ class AuditServiceTest {
     void shouldAuditCitySuccessfully() {
         // Arrange
         when(entityMapper.toCityAudit(city, AuditOperation.CREATE)).thenReturn(cityAudit);
-        when(cityAuditRepository.save(cityAudit)).thenReturn(cityAudit);
 
         // Act
         auditService.auditCity(city, AuditOperation.CREATE);
 
         // Assert
         verify(entityMapper).toCityAudit(city, AuditOperation.CREATE);
-        verify(cityAuditRepository).save(cityAudit);
+        verify(auditWriter).write(AuditRecord.of(cityAudit));
     }
 
     @Test
@@ -98,14 +110,13 @@ class AuditServiceTest {
     void shouldAuditHumanSuccessfully() {
         // Arrange
         when(entityMapper.toHumanAudit(human, AuditOperation.UPDATE)).thenReturn(humanAudit);
-        when(humanAuditRepository.save(humanAudit)).thenReturn(humanAudit);
 
         // Act
         auditService.auditHuman(human, AuditOperation.UPDATE);
 
         // Assert
         verify(entityMapper).toHumanAudit(human, AuditOperation.UPDATE);
-        verify(humanAuditRepository).save(humanAudit);
+        verify(auditWriter).write(AuditRecord.of(humanAudit));
     }
 
     @Test
@@ -113,14 +124,13 @@ class AuditServiceTest {
     void shouldAuditCoordinatesSuccessfully() {
         // Arrange
         when(entityMapper.toCoordinatesAudit(coordinates, AuditOperation.CREATE)).thenReturn(coordinatesAudit);
-        when(coordinatesAuditRepository.save(coordinatesAudit)).thenReturn(coordinatesAudit);
 
         // Act
         auditService.auditCoordinates(coordinates, AuditOperation.CREATE);
 
         // Assert
         verify(entityMapper).toCoordinatesAudit(coordinates, AuditOperation.CREATE);
-        verify(coordinatesAuditRepository).save(coordinatesAudit);
+        verify(auditWriter).write(AuditRecord.of(coordinatesAudit));
     }
 
     @Test
@@ -133,6 +143,7 @@ class AuditServiceTest {
         auditService.deleteCityAuditEntries(cityId);
 
         // Assert
+        verify(auditWriter).discard(AuditTarget.CITY, cityId);
         verify(cityAuditRepository).deleteAllByCityId(cityId);
     }
 
@@ -146,6 +157,7 @@ class AuditServiceTest {
         auditService.deleteHumanAuditEntries(humanId);
 
         // Assert
+        verify(auditWriter).discard(AuditTarget.HUMAN, humanId);
         verify(humanAuditRepository).deleteAllByHumanId(humanId);
     }
 
@@ -159,6 +171,7 @@ class AuditServiceTest {
         auditService.deleteCoordinatesAuditEntries(coordinatesId);
 
         // Assert
+        verify(auditWriter).discard(AuditTarget.COORDINATES, coordinatesId);
         verify(coordinatesAuditRepository).deleteAllByCoordinatesId(coordinatesId);
     }
 }
@@ -0,0 +1,114 @@
+package ru.itmo.cs.unit;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.itmo.cs.entity.audit.AuditOperation;
+import ru.itmo.cs.util.audit.AuditDurability;
+import ru.itmo.cs.util.audit.AuditRecord;
+import ru.itmo.cs.util.audit.AuditTarget;
+import ru.itmo.cs.util.audit.DefaultAuditWriter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private DefaultAuditWriter auditWriter;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        auditWriter.stop();
+    }
+
+    @Test
+    @DisplayName("Записи транзакции вставляются одним пакетом перед фиксацией")
+    void shouldInsertPendingRecordsInOneBatchBeforeCommit() {
+        // Arrange
+        auditWriter = writer(AuditDurability.COMMIT, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        auditWriter.write(record(AuditTarget.CITY, 1L));
+        auditWriter.write(record(AuditTarget.CITY, 2L));
+        auditWriter.write(record(AuditTarget.CITY, 3L));
+
+        // Act
+        auditWriter.discard(AuditTarget.CITY, 2L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        // Assert
+        verify(entityManager).flush();
+        verify(jdbcTemplate).batchUpdate(eq(AuditTarget.CITY.getInsertSql()),
+                eq(List.of(record(AuditTarget.CITY, 1L), record(AuditTarget.CITY, 3L))), eq(500), anySetter());
+    }
+
+    @Test
+    @DisplayName("Фоновый писатель сбрасывает очередь в течение интервала")
+    void shouldFlushQueueWithinInterval() {
+        // Arrange
+        auditWriter = writer(AuditDurability.ASYNC, 10);
+        auditWriter.start();
+
+        // Act
+        auditWriter.write(record(AuditTarget.HUMAN, 1L));
+        auditWriter.write(record(AuditTarget.COORDINATES, 2L));
+
+        // Assert
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(eq(AuditTarget.HUMAN.getInsertSql()),
+                eq(List.of(record(AuditTarget.HUMAN, 1L))), eq(500), anySetter());
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(eq(AuditTarget.COORDINATES.getInsertSql()),
+                eq(List.of(record(AuditTarget.COORDINATES, 2L))), eq(500), anySetter());
+    }
+
+    @Test
+    @DisplayName("При переполнении очереди запись выполняет вызывающий поток")
+    void shouldWriteOnCallerThreadWhenQueueIsFull() {
+        // Arrange
+        auditWriter = writer(AuditDurability.ASYNC, 1);
+
+        // Act
+        auditWriter.write(record(AuditTarget.CITY, 1L));
+        auditWriter.write(record(AuditTarget.CITY, 2L));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(eq(AuditTarget.CITY.getInsertSql()),
+                eq(List.of(record(AuditTarget.CITY, 2L))), eq(500), anySetter());
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    private DefaultAuditWriter writer(AuditDurability durability, int queueCapacity) {
+        return new DefaultAuditWriter(jdbcTemplate, transactionManager, entityManager,
+                durability, 50, 500, queueCapacity, 0);
+    }
+
+    private static AuditRecord record(AuditTarget target, Long entityId) {
+        return new AuditRecord(target, entityId, 1L, AuditOperation.CREATE, LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    private static ParameterizedPreparedStatementSetter<AuditRecord> anySetter() {
+        return any();
+    }
+}
@@ -128,4 +128,42 @@ class CalculateDistanceServiceTest {
         // Assert
         assertEquals(expectedDistance, result, 0.0001, "Расстояние рассчитано неверно");
     }
+
+    @Test
+    @DisplayName("Пакетный расчет совпадает с поштучным")
+    void shouldMatchSingleCallsInBatch() {
+        // Arrange
+        double[] xs = {4.0, -1.0, 1e6, 0.0};
+        double[] ys = {6.0, -2.0, 2e6, 4.0};
+        double[] zs = {8.0, -3.0, 3e6, 0.0};
+        double[] fromPoint = new double[4];
+        double[] pairwise = new double[4];
+
+        // Act
+        calculateDistanceService.calculate(1.0, 2.0, 3.0, xs, ys, zs, fromPoint, 4);
+        calculateDistanceService.calculate(zs, xs, ys, xs, ys, zs, pairwise, 4);
+
+        // Assert
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(calculateDistanceService.calculate(1.0, 2.0, 3.0, xs[i], ys[i], zs[i]), fromPoint[i]);
+            assertEquals(calculateDistanceService.calculate(zs[i], xs[i], ys[i], xs[i], ys[i], zs[i]), pairwise[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка при NaN-координатах в пакетном расчете")
+    void shouldThrowExceptionForNaNInBatch() {
+        // Arrange
+        double[] xs = {4.0, 5.0};
+        double[] ys = {6.0, Double.NaN};
+        double[] zs = {8.0, 9.0};
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> calculateDistanceService.calculate(1.0, 2.0, 3.0, xs, ys, zs, new double[2], 2)
+        );
+
+        assertEquals("Координаты не должны содержать NaN", exception.getMessage());
+    }
 }
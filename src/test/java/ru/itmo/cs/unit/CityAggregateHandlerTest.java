@@ -0,0 +1,77 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.repository.ClimateTotalsView;
+import ru.itmo.cs.util.aggregate.CityContribution;
+import ru.itmo.cs.util.aggregate.DefaultCityAggregateHandler;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityAggregateHandlerTest {
+
+    @InjectMocks
+    private DefaultCityAggregateHandler cityAggregateHandler;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Test
+    @DisplayName("Агрегаты учитывают создание, изменение и удаление городов")
+    void shouldMaintainAggregatesOnChanges() {
+        // Arrange
+        CityContribution steppe = new CityContribution(Climate.STEPPE, 100);
+        CityContribution polar = new CityContribution(Climate.POLAR_ICECAP, 30);
+
+        // Act
+        cityAggregateHandler.add(steppe);
+        cityAggregateHandler.add(new CityContribution(null, 5));
+        cityAggregateHandler.add(polar);
+        cityAggregateHandler.subtract(polar);
+        cityAggregateHandler.add(new CityContribution(Climate.RAIN_FOREST, 40));
+
+        // Assert
+        assertEquals(145L, cityAggregateHandler.sumMetersAboveSeaLevel());
+        assertEquals(1L, cityAggregateHandler.countClimateGreaterThan(Climate.OCEANIC));
+        assertEquals(1L, cityAggregateHandler.countClimateGreaterThan(Climate.RAIN_FOREST));
+        assertEquals(0L, cityAggregateHandler.countClimateGreaterThan(Climate.POLAR_ICECAP));
+    }
+
+    @Test
+    @DisplayName("Сверка загружает агрегаты из таблицы и исправляет только устойчивое расхождение")
+    void shouldReconcileWithTable() {
+        // Arrange
+        ClimateTotalsView steppeTotals = totals(Climate.STEPPE, 2, 70);
+        when(cityRepository.sumByClimate()).thenReturn(List.of(steppeTotals));
+        cityAggregateHandler.reconcile();
+        cityAggregateHandler.add(new CityContribution(Climate.STEPPE, 10));
+
+        // Act
+        cityAggregateHandler.reconcile();
+        long afterFirstCheck = cityAggregateHandler.sumMetersAboveSeaLevel();
+        cityAggregateHandler.reconcile();
+
+        // Assert
+        assertEquals(80L, afterFirstCheck);
+        assertEquals(70L, cityAggregateHandler.sumMetersAboveSeaLevel());
+        assertEquals(2L, cityAggregateHandler.countClimateGreaterThan(Climate.OCEANIC));
+    }
+
+    private ClimateTotalsView totals(Climate climate, long cities, long meters) {
+        ClimateTotalsView view = mock(ClimateTotalsView.class);
+        when(view.getClimate()).thenReturn(climate);
+        when(view.getCities()).thenReturn(cities);
+        when(view.getMetersAboveSeaLevel()).thenReturn(meters);
+        return view;
+    }
+}
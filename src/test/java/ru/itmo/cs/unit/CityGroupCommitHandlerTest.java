@@ -0,0 +1,225 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.itmo.cs.dto.city.CityDTO;
+import ru.itmo.cs.service.CityService;
+import ru.itmo.cs.util.groupcommit.DefaultCityGroupCommitHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CityGroupCommitHandlerTest {
+
+    @Mock
+    private CityService cityService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DefaultCityGroupCommitHandler groupCommitHandler;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        groupCommitHandler.stop();
+    }
+
+    @Test
+    @DisplayName("Без группового коммита город создается напрямую")
+    void shouldCreateDirectlyWhenDisabled() {
+        // Arrange
+        groupCommitHandler = handler(false);
+        groupCommitHandler.start();
+        CityDTO cityDTO = city("Direct");
+        when(cityService.createCity(cityDTO)).thenReturn(cityDTO);
+
+        // Act
+        CityDTO result = groupCommitHandler.createCity(cityDTO);
+
+        // Assert
+        assertSame(cityDTO, result);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы фиксируются одной транзакцией")
+    void shouldCommitConcurrentRequestsTogether() throws Exception {
+        // Arrange
+        groupCommitHandler = handler(true);
+        groupCommitHandler.start();
+        when(cityService.createCity(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Future<CityDTO>> results = submit(city("First"), city("Second"), city("Third"));
+
+        // Assert
+        assertEquals(List.of("First", "Second", "Third"), names(results).stream().sorted().toList());
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Ошибка одного запроса не влияет на остальные")
+    void shouldIsolateFailedRequest() throws Exception {
+        // Arrange
+        groupCommitHandler = handler(true);
+        groupCommitHandler.start();
+        when(cityService.createCity(any())).thenAnswer(invocation -> {
+            CityDTO cityDTO = invocation.getArgument(0);
+            if (cityDTO.getName().equals("Broken")) {
+                throw new IllegalArgumentException("Некорректный город");
+            }
+            return cityDTO;
+        });
+
+        // Act
+        List<Future<CityDTO>> results = submit(city("First"), city("Broken"), city("Third"));
+
+        // Assert
+        List<String> created = new ArrayList<>();
+        int failed = 0;
+        for (Future<CityDTO> result : results) {
+            try {
+                created.add(result.get(5, TimeUnit.SECONDS).getName());
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                failed++;
+            }
+        }
+        assertEquals(List.of("First", "Third"), created.stream().sorted().toList());
+        assertEquals(1, failed);
+    }
+
+    @Test
+    @DisplayName("Ошибка вне RuntimeException завершает пакет и не останавливает фиксацию")
+    void shouldSurviveErrorInBatch() throws Exception {
+        // Arrange
+        groupCommitHandler = new DefaultCityGroupCommitHandler(cityService, transactionManager, true, 1, 0, 10, 5000);
+        groupCommitHandler.start();
+        CityDTO broken = city("Broken");
+        when(cityService.createCity(any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == broken) {
+                throw new StackOverflowError();
+            }
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        Future<CityDTO> failed = submit(broken).get(0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        List<Future<CityDTO>> next = submit(city("Next"));
+
+        // Assert
+        assertInstanceOf(StackOverflowError.class, error.getCause().getCause());
+        assertEquals(List.of("Next"), names(next));
+    }
+
+    @Test
+    @DisplayName("Запрос, так и не взятый из очереди, снимается по таймауту")
+    void shouldWithdrawQueuedRequestOnTimeout() throws Exception {
+        // Arrange
+        groupCommitHandler = new DefaultCityGroupCommitHandler(cityService, transactionManager, true, 1, 0, 10, 100);
+        groupCommitHandler.start();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(cityService.createCity(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        Future<CityDTO> stuck = submit(city("Stuck")).get(0);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CityDTO queued = city("Queued");
+
+        // Act
+        Future<CityDTO> result = submit(queued).get(0);
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        // Assert
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals("Stuck", stuck.get(5, TimeUnit.SECONDS).getName());
+        verify(cityService, never()).createCity(queued);
+    }
+
+    @Test
+    @DisplayName("Запрос, уже взятый в коммит, дожидается результата после таймаута")
+    void shouldAwaitOutcomeOfTakenRequest() throws Exception {
+        // Arrange
+        groupCommitHandler = new DefaultCityGroupCommitHandler(cityService, transactionManager, true, 1, 0, 10, 100);
+        groupCommitHandler.start();
+        when(cityService.createCity(any())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        List<Future<CityDTO>> results = submit(city("Slow"));
+
+        // Assert
+        assertEquals(List.of("Slow"), names(results));
+    }
+
+    @Test
+    @DisplayName("После остановки запросы не ставятся в очередь")
+    void shouldCreateDirectlyAfterStop() throws Exception {
+        // Arrange
+        groupCommitHandler = handler(true);
+        groupCommitHandler.start();
+        groupCommitHandler.stop();
+        CityDTO cityDTO = city("After Stop");
+        when(cityService.createCity(cityDTO)).thenReturn(cityDTO);
+
+        // Act
+        CityDTO result = groupCommitHandler.createCity(cityDTO);
+
+        // Assert
+        assertSame(cityDTO, result);
+        verifyNoInteractions(transactionManager);
+    }
+
+    private DefaultCityGroupCommitHandler handler(boolean enabled) {
+        return new DefaultCityGroupCommitHandler(cityService, transactionManager, enabled, 3, 2000, 10, 5000);
+    }
+
+    private List<Future<CityDTO>> submit(CityDTO... cities) {
+        List<Future<CityDTO>> results = new ArrayList<>();
+        for (CityDTO cityDTO : cities) {
+            results.add(callers.submit(() -> groupCommitHandler.createCity(cityDTO)));
+        }
+        return results;
+    }
+
+    private static List<String> names(List<Future<CityDTO>> results) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (Future<CityDTO> result : results) {
+            names.add(result.get(5, TimeUnit.SECONDS).getName());
+        }
+        return names;
+    }
+
+    private static CityDTO city(String name) {
+        CityDTO cityDTO = new CityDTO();
+        cityDTO.setName(name);
+        return cityDTO;
+    }
+}
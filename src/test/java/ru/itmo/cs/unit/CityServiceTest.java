@@ -9,6 +9,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import ru.itmo.cs.dto.city.CityDTO;
@@ -27,8 +28,18 @@ import ru.itmo.cs.exception.ResourceNotFoundException;
 import ru.itmo.cs.repository.CityRepository;
 import ru.itmo.cs.service.*;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.aggregate.CityAggregateHandler;
+import ru.itmo.cs.util.aggregate.CityContribution;
+import ru.itmo.cs.util.aggregate.CityLocation;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
 import ru.itmo.cs.util.filter.FilterProcessor;
+import ru.itmo.cs.util.cache.DefaultDtoCacheHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.DefaultCountHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -69,9 +80,24 @@ class CityServiceTest {
     @Mock
     private PaginationHandler paginationHandler;
 
+    @Spy
+    private CountHandler countHandler = new DefaultCountHandler();
+
+    @Spy
+    private DtoCacheHandler dtoCacheHandler = new DefaultDtoCacheHandler(100, 60000);
+
     @Mock
     private CalculateDistanceService calculateDistanceService;
 
+    @Mock
+    private CityAggregateHandler cityAggregateHandler;
+
+    @Mock
+    private LargestCityHandler largestCityHandler;
+
+    @Mock
+    private SpatialIndexHandler spatialIndexHandler;
+
     private CityDTO cityDTO;
     private City city;
     private CoordinatesDTO coordinatesDTO;
@@ -144,6 +170,7 @@ class CityServiceTest {
         assertNotNull(result);
         assertEquals(cityDTO, result);
         verify(auditService).auditCity(city, AuditOperation.CREATE);
+        verify(cityAggregateHandler).add(CityContribution.of(city));
     }
 
     @Test
@@ -165,6 +192,26 @@ class CityServiceTest {
         verifyNoInteractions(auditService);
     }
 
+    @Test
+    @DisplayName("Обновление без изменений не создает запись аудита")
+    void shouldNotAuditUnchangedCity() {
+        // Arrange
+        when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+        when(userService.canModifyCity(city)).thenReturn(true);
+        when(coordinatesService.createOrUpdateCoordinatesForCity(coordinatesDTO)).thenReturn(coordinates);
+        when(humanService.createOrUpdateHumanForCity(humanDTO)).thenReturn(human);
+        when(entityMapper.updateCityEntity(city, cityDTO, coordinates, human)).thenReturn(false);
+        when(entityMapper.toCityDTO(city)).thenReturn(cityDTO);
+
+        // Act
+        CityDTO result = cityService.updateCity(1L, cityDTO);
+
+        // Assert
+        assertEquals(cityDTO, result);
+        verify(cityRepository, never()).save(any());
+        verifyNoInteractions(auditService, cityAggregateHandler, spatialIndexHandler);
+    }
+
     @Test
     @DisplayName("Успешное удаление города")
     void shouldDeleteCitySuccessfully() {
@@ -203,7 +250,7 @@ class CityServiceTest {
     @DisplayName("Успешный расчет маршрута к городу с наибольшей площадью")
     void shouldCalculateRouteToCityWithLargestArea() {
         // Arrange
-        when(cityRepository.findTopByOrderByAreaDesc()).thenReturn(city);
+        when(largestCityHandler.findLargest()).thenReturn(Optional.of(new CityLocation(1L, 1000.0, 100L, 200.5)));
         when(calculateDistanceService.calculate(0, 0, 0, 100, 200.5, 0)).thenReturn(223.61);
 
         // Act
@@ -217,7 +264,7 @@ class CityServiceTest {
     @DisplayName("Ошибка при расчете маршрута, если города отсутствуют")
     void shouldThrowExceptionWhenNoCitiesExist() {
         // Arrange
-        when(cityRepository.findTopByOrderByAreaDesc()).thenReturn(null);
+        when(largestCityHandler.findLargest()).thenReturn(Optional.empty());
 
         // Act & Assert
         EntityNotFoundException exception = assertThrows(
@@ -239,7 +286,7 @@ class CityServiceTest {
             double userX, double userY, double userZ,
             double cityX, double cityY, double expectedDistance) {
         // Arrange
-        when(cityRepository.findTopByOrderByAreaDesc()).thenReturn(city);
+        when(largestCityHandler.findLargest()).thenReturn(Optional.of(new CityLocation(1L, 1000.0, 100L, 200.5)));
         lenient().when(calculateDistanceService.calculate(anyDouble(),
                         anyDouble(),
                         anyDouble(),
@@ -271,6 +318,26 @@ class CityServiceTest {
         assertEquals(cityDTO, result);
     }
 
+    @Test
+    @DisplayName("Повторное получение города берется из кэша до изменения губернатора")
+    void shouldServeCityFromCacheUntilGovernorChanges() {
+        // Arrange
+        when(cityRepository.findById(1L)).thenReturn(Optional.of(city));
+        when(entityMapper.toCityDTO(city)).thenReturn(cityDTO);
+
+        // Act
+        cityService.getCityById(1L);
+        cityService.getCityById(1L);
+        dtoCacheHandler.evictHuman(humanDTO.getId());
+        CityDTO result = cityService.getCityById(1L);
+
+        // Assert
+        assertEquals(cityDTO, result);
+        verify(cityRepository, times(2)).findById(1L);
+        assertEquals(1, dtoCacheHandler.getStats().get(0).getHits());
+        assertEquals(1, dtoCacheHandler.getStats().get(0).getInvalidations());
+    }
+
     @Test
     @DisplayName("Ошибка при попытке получить город по несуществующему ID")
     void shouldThrowExceptionWhenCityNotFoundById() {
@@ -323,7 +390,7 @@ class CityServiceTest {
     @DisplayName("Успешный расчет общего числа метров над уровнем моря")
     void shouldCalculateTotalMetersAboveSeaLevelSuccessfully() {
         // Arrange
-        when(cityRepository.sumMetersAboveSeaLevel()).thenReturn(1500L);
+        when(cityAggregateHandler.sumMetersAboveSeaLevel()).thenReturn(1500L);
 
         // Act
         Long result = cityService.calculateTotalMetersAboveSeaLevel();
@@ -336,7 +403,7 @@ class CityServiceTest {
     @DisplayName("Успешный подсчет городов по климату")
     void shouldCountCitiesByClimateSuccessfully() {
         // Arrange
-        when(cityRepository.findByClimateGreaterThan(Climate.STEPPE)).thenReturn(List.of(city));
+        when(cityAggregateHandler.countClimateGreaterThan(Climate.STEPPE)).thenReturn(1L);
 
         // Act
         Long result = cityService.countCitiesByClimate(Climate.STEPPE);
@@ -359,7 +426,8 @@ class CityServiceTest {
                 .thenReturn(expectedPage);
 
         // Act
-        Page<CityDTO> result = cityService.getAllCities("Test", Climate.STEPPE, null, null, null, 0, 10, "name", "asc");
+        Slice<CityDTO> result = cityService.getAllCities(
+                "Test", Climate.STEPPE, null, null, null, 0, 10, "name", "asc", CountMode.EXACT);
 
         // Assert
         assertNotNull(result);
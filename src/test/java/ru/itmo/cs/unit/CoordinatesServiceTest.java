@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import ru.itmo.cs.dto.coordinates.CoordinatesDTO;
@@ -20,7 +21,14 @@ import ru.itmo.cs.service.AuditService;
 import ru.itmo.cs.service.CoordinatesService;
 import ru.itmo.cs.service.UserService;
 import ru.itmo.cs.util.EntityMapper;
+import ru.itmo.cs.util.aggregate.LargestCityHandler;
+import ru.itmo.cs.util.cache.DefaultDtoCacheHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.DefaultCountHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
+import ru.itmo.cs.util.spatial.SpatialIndexHandler;
 
 import java.util.Collections;
 import java.util.List;
@@ -50,6 +58,18 @@ class CoordinatesServiceTest {
     @Mock
     private PaginationHandler paginationHandler;
 
+    @Spy
+    private CountHandler countHandler = new DefaultCountHandler();
+
+    @Mock
+    private LargestCityHandler largestCityHandler;
+
+    @Mock
+    private SpatialIndexHandler spatialIndexHandler;
+
+    @Spy
+    private DtoCacheHandler dtoCacheHandler = new DefaultDtoCacheHandler(100, 60000);
+
     private Coordinates coordinates;
     private CoordinatesDTO coordinatesDTO;
     private User user;
@@ -82,11 +102,11 @@ class CoordinatesServiceTest {
         when(entityMapper.toCoordinatesDTO(coordinates)).thenReturn(coordinatesDTO);
 
         // Act
-        Page<CoordinatesDTO> result = coordinatesService.getAllCoordinates(0, 10, "x", "asc");
+        Slice<CoordinatesDTO> result = coordinatesService.getAllCoordinates(0, 10, "x", "asc", CountMode.EXACT);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(1, assertInstanceOf(Page.class, result).getTotalElements());
         assertEquals(coordinatesDTO, result.getContent().get(0));
         verify(paginationHandler).createPageable(0, 10, "x", "asc");
         verify(coordinatesRepository).findAll(pageable);
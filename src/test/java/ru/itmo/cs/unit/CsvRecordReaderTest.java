@@ -0,0 +1,53 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itmo.cs.util.csv.CsvRecordReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Разбор полей с кавычками, экранированием и пустыми значениями")
+    void shouldSplitQuotedFields() {
+        // Act
+        List<String> fields = CsvRecordReader.split("plain,\"with, comma\",\"say \"\"hi\"\"\",,");
+
+        // Assert
+        assertEquals(List.of("plain", "with, comma", "say \"hi\"", "", ""), fields);
+    }
+
+    @Test
+    @DisplayName("Запись с переводом строки в кавычках читается целиком")
+    void shouldJoinLinesInsideQuotes() throws IOException {
+        // Arrange
+        Path file = directory.resolve("data.csv");
+        Files.writeString(file, "\uFEFFname,note\nfirst,\"two\nlines\"\nsecond,one\n", StandardCharsets.UTF_8);
+
+        // Act
+        try (CsvRecordReader reader = new CsvRecordReader(file)) {
+            String header = reader.next();
+            String first = reader.next();
+            long firstEndsAt = reader.getLineNumber();
+            String second = reader.next();
+
+            // Assert
+            assertEquals("name,note", header);
+            assertEquals(List.of("first", "two\nlines"), CsvRecordReader.split(first));
+            assertEquals(3, firstEndsAt);
+            assertEquals("second,one", second);
+            assertNull(reader.next());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itmo.cs.util.cache.DtoCache;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoCacheTest {
+
+    private final DtoCache<Long, String> cache = new DtoCache<>("cities", 2, 60000, value -> List.of(value));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Изменение губернатора сбрасывает только города с этим губернатором")
+    void shouldInvalidateOnlyDependents() {
+        // Arrange
+        cache.get(1L, id -> load("governor:1"));
+        cache.get(2L, id -> load("governor:2"));
+
+        // Act
+        cache.invalidateDependents("governor:1");
+        cache.get(1L, id -> load("governor:1"));
+        cache.get(2L, id -> load("governor:2"));
+
+        // Assert
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("Вытесненная запись не остается в обратном индексе")
+    void shouldUnlinkEvictedEntries() {
+        // Arrange
+        cache.get(1L, id -> load("governor:1"));
+        cache.get(2L, id -> load("governor:2"));
+        cache.get(3L, id -> load("governor:3"));
+
+        // Act
+        cache.invalidateDependents("governor:1");
+
+        // Assert
+        assertEquals(0, cache.stats().getInvalidations());
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    private String load(String governor) {
+        loads.incrementAndGet();
+        return governor;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.util.spatial.GridIndex;
+import ru.itmo.cs.util.spatial.SpatialMatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GridIndexTest {
+
+    private GridIndex index;
+    private List<GridIndex.Entry> entries;
+
+    @BeforeEach
+    void setUp() {
+        index = new GridIndex(8);
+        entries = new ArrayList<>();
+        Random random = new Random(42);
+        for (long id = 1; id <= 2000; id++) {
+            GridIndex.Entry entry = new GridIndex.Entry(id, id, 1 + random.nextInt(820),
+                    random.nextGaussian() * 300, Climate.values()[random.nextInt(Climate.values().length)],
+                    Government.values()[random.nextInt(Government.values().length)]);
+            entries.add(entry);
+            index.put(entry);
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск k ближайших совпадает с полным перебором")
+    void shouldMatchBruteForceNearest() {
+        // Arrange
+        Predicate<GridIndex.Entry> filter = entry -> entry.climate() == Climate.STEPPE;
+        ToDoubleFunction<GridIndex.Entry> distance = distanceFrom(400, -20, 15);
+
+        // Act
+        List<SpatialMatch> result = index.nearest(400, -20, 15, 10, filter, distance);
+
+        // Assert
+        assertEquals(bruteForce(filter, distance).subList(0, 10), result);
+    }
+
+    @Test
+    @DisplayName("Поиск в радиусе совпадает с полным перебором")
+    void shouldMatchBruteForceWithinRadius() {
+        // Arrange
+        ToDoubleFunction<GridIndex.Entry> distance = distanceFrom(100, 100, 30);
+        List<SpatialMatch> expected = bruteForce(entry -> true, distance).stream()
+                .filter(match -> match.distance() <= 90)
+                .toList();
+
+        // Act
+        List<SpatialMatch> result = index.withinRadius(100, 100, 30, 90, 10000, entry -> true, distance);
+
+        // Assert
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, result);
+    }
+
+    @Test
+    @DisplayName("Перемещение общих координат переносит все связанные города")
+    void shouldMoveAllCitiesSharingCoordinates() {
+        // Arrange
+        index.clear();
+        index.put(new GridIndex.Entry(1L, 7L, 10, 10.0, Climate.STEPPE, Government.JUNTA));
+        index.put(new GridIndex.Entry(2L, 7L, 10, 10.0, Climate.STEPPE, Government.JUNTA));
+        index.put(new GridIndex.Entry(3L, 8L, 500, 500.0, Climate.STEPPE, Government.JUNTA));
+
+        // Act
+        index.move(7L, 600, 600.0);
+        index.remove(3L);
+        List<SpatialMatch> result = index.nearest(600, 600, 0, 5, entry -> true, distanceFrom(600, 600, 0));
+
+        // Assert
+        assertEquals(List.of(new SpatialMatch(1L, 0.0), new SpatialMatch(2L, 0.0)), result);
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Радиус меньше высоты точки над плоскостью ничего не находит")
+    void shouldReturnNothingWhenRadiusBelowHeight() {
+        // Act
+        List<SpatialMatch> result = index.withinRadius(100, 100, 50, 40, 10, entry -> true,
+                distanceFrom(100, 100, 50));
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    private List<SpatialMatch> bruteForce(Predicate<GridIndex.Entry> filter, ToDoubleFunction<GridIndex.Entry> distance) {
+        return entries.stream()
+                .filter(filter)
+                .map(entry -> new SpatialMatch(entry.cityId(), distance.applyAsDouble(entry)))
+                .sorted(Comparator.comparingDouble(SpatialMatch::distance).thenComparing(SpatialMatch::cityId))
+                .toList();
+    }
+
+    private static ToDoubleFunction<GridIndex.Entry> distanceFrom(double x, double y, double z) {
+        return entry -> Math.sqrt(Math.pow(entry.x() - x, 2) + Math.pow(entry.y() - y, 2) + z * z);
+    }
+}
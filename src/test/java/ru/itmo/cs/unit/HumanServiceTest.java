@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import ru.itmo.cs.dto.human.HumanDTO;
@@ -22,13 +23,20 @@ import ru.itmo.cs.service.HumanService;
 import ru.itmo.cs.service.UserService;
 import ru.itmo.cs.util.EntityMapper;
 import ru.itmo.cs.util.filter.FilterProcessor;
+import ru.itmo.cs.util.cache.DefaultDtoCacheHandler;
+import ru.itmo.cs.util.cache.DtoCacheHandler;
+import ru.itmo.cs.util.pagination.CountHandler;
+import ru.itmo.cs.util.pagination.CountMode;
+import ru.itmo.cs.util.pagination.DefaultCountHandler;
 import ru.itmo.cs.util.pagination.PaginationHandler;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -55,6 +63,12 @@ class HumanServiceTest {
     @Mock
     private PaginationHandler paginationHandler;
 
+    @Spy
+    private CountHandler countHandler = new DefaultCountHandler();
+
+    @Spy
+    private DtoCacheHandler dtoCacheHandler = new DefaultDtoCacheHandler(100, 60000);
+
     private Human human;
     private HumanDTO humanDTO;
     private User user;
@@ -92,15 +106,68 @@ class HumanServiceTest {
         when(humanFilterProcessor.filter(criteria, pageable)).thenReturn(humanDTOPage);
 
         // Act
-        Page<HumanDTO> result = humanService.getAllHumans("John", 0, 10, "name", "asc");
+        Slice<HumanDTO> result = humanService.getAllHumans("John", 0, 10, "name", "asc", CountMode.EXACT);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.getTotalElements());
+        assertEquals(1, assertInstanceOf(Page.class, result).getTotalElements());
         assertEquals(humanDTO, result.getContent().get(0));
         verify(humanFilterProcessor).filter(criteria, pageable);
     }
 
+    @Test
+    @DisplayName("Получение людей без подсчета общего количества")
+    void shouldGetHumansWithoutCount() {
+        // Arrange
+        HumanFilterCriteria criteria = new HumanFilterCriteria();
+        criteria.setName("John");
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("name").ascending());
+
+        when(paginationHandler.createPageable(0, 1, "name", "asc")).thenReturn(pageable);
+        when(humanFilterProcessor.filterSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(humanDTO), pageable, true));
+
+        // Act
+        Slice<HumanDTO> result = humanService.getAllHumans("John", 0, 1, "name", "asc", CountMode.NONE);
+
+        // Assert
+        assertFalse(result instanceof Page);
+        assertTrue(result.hasNext());
+        verify(humanFilterProcessor, never()).filter(any(), any());
+        verify(humanFilterProcessor, never()).count(any());
+    }
+
+    @Test
+    @DisplayName("Получение людей с оценкой количества из кэша")
+    void shouldGetHumansWithEstimatedCount() throws InterruptedException {
+        // Arrange
+        HumanFilterCriteria criteria = new HumanFilterCriteria();
+        criteria.setName("John");
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("name").ascending());
+
+        when(paginationHandler.createPageable(0, 1, "name", "asc")).thenReturn(pageable);
+        when(humanFilterProcessor.filterSlice(criteria, pageable))
+                .thenReturn(new SliceImpl<>(List.of(humanDTO), pageable, true));
+        when(humanFilterProcessor.count(criteria)).thenReturn(5L);
+
+        // Act
+        Slice<HumanDTO> first = humanService.getAllHumans("John", 0, 1, "name", "asc", CountMode.ESTIMATED);
+        Slice<HumanDTO> result = first;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!(result instanceof Page) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            result = humanService.getAllHumans("John", 0, 1, "name", "asc", CountMode.ESTIMATED);
+        }
+
+        // Assert
+        // первая страница не ждет подсчета, он выполняется в фоне
+        assertFalse(first instanceof Page);
+        assertTrue(first.hasNext());
+        assertEquals(5L, assertInstanceOf(Page.class, result).getTotalElements());
+        verify(humanFilterProcessor, times(1)).count(criteria);
+        verify(humanFilterProcessor, never()).filter(any(), any());
+    }
+
     @Test
     @DisplayName("Успешное получение человека по ID")
     void shouldGetHumanByIdSuccessfully() {
@@ -194,6 +261,24 @@ class HumanServiceTest {
         verify(humanRepository).findById(humanDTO.getId());
     }
 
+    @Test
+    @DisplayName("Губернатор, переданный только по id, привязывается без чтения и аудита")
+    void shouldLinkHumanByIdWithoutWrites() {
+        // Arrange
+        HumanDTO reference = new HumanDTO();
+        reference.setId(1L);
+        when(humanRepository.getReferenceById(1L)).thenReturn(human);
+
+        // Act
+        Human result = humanService.createOrUpdateHumanForCity(reference);
+
+        // Assert
+        assertSame(human, result);
+        verify(humanRepository, never()).findById(any());
+        verify(humanRepository, never()).save(any());
+        verifyNoInteractions(auditService);
+    }
+
     @Test
     @DisplayName("Успешное удаление человека")
     void shouldDeleteHumanSuccessfully() {
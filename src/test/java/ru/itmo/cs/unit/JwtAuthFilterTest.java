@@ -0,0 +1,117 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.itmo.cs.config.JwtAuthFilter;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.enums.UserRole;
+import ru.itmo.cs.repository.UserRepository;
+import ru.itmo.cs.service.JwtService;
+import ru.itmo.cs.util.cache.DefaultTokenVersionHandler;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private DefaultTokenVersionHandler tokenVersionHandler;
+    private JwtService jwtService;
+    private JwtAuthFilter jwtAuthFilter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionHandler = new DefaultTokenVersionHandler(userRepository);
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "H++QPACG3PMKlsKILieJCXpW0DrJUMpiPTcU/KosFYU=");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", 100);
+        jwtService.setTokenVersionHandler(tokenVersionHandler);
+        jwtService.init();
+
+        jwtAuthFilter = new JwtAuthFilter(jwtService, userDetailsService, tokenVersionHandler);
+        ReflectionTestUtils.setField(jwtAuthFilter, "claimsOnly", true);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setPassword("encodedPassword");
+        user.setRole(UserRole.USER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Пользователь и роль берутся из токена без обращения к базе на каждый запрос")
+    void shouldAuthenticateFromClaims() throws Exception {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        Authentication first = filter(token);
+        Authentication second = filter(token);
+
+        // Assert
+        assertNotNull(first);
+        assertEquals("testUser", second.getName());
+        assertEquals("ROLE_USER", second.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+        verify(userRepository, times(1)).findById(1L);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Токен, выданный до смены роли, больше не принимается")
+    void shouldRejectTokenIssuedBeforeRoleChange() throws Exception {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        User promoted = new User();
+        promoted.setId(1L);
+        promoted.setUsername("testUser");
+        promoted.setPassword("encodedPassword");
+        promoted.setRole(UserRole.ADMIN);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user), Optional.of(promoted));
+        assertNotNull(filter(token));
+
+        // Act
+        tokenVersionHandler.evict(1L);
+        Authentication afterChange = filter(token);
+
+        // Assert
+        assertNull(afterChange);
+        assertNotNull(filter(jwtService.generateToken(promoted)));
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cities");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
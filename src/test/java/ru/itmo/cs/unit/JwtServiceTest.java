@@ -0,0 +1,83 @@
+package ru.itmo.cs.unit;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.enums.UserRole;
+import ru.itmo.cs.repository.UserRepository;
+import ru.itmo.cs.service.JwtService;
+import ru.itmo.cs.util.cache.DefaultTokenVersionHandler;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = jwtService(3600000L);
+        user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setRole(UserRole.USER);
+    }
+
+    @Test
+    @DisplayName("Проверенный токен повторно не разбирается")
+    void shouldVerifyTokenOnce() {
+        // Arrange
+        String token = jwtService.generateToken(user);
+
+        // Act
+        Claims first = jwtService.extractClaim(token, Function.identity());
+        boolean valid = jwtService.validateToken(token, user);
+        Claims second = jwtService.extractClaim(token, Function.identity());
+
+        // Assert
+        assertTrue(valid);
+        assertSame(first, second);
+        assertEquals("testUser", first.getSubject());
+    }
+
+    @Test
+    @DisplayName("Токен с чужой подписью отклоняется")
+    void shouldRejectTamperedToken() {
+        // Arrange
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Act & Assert
+        assertEquals("testUser", jwtService.extractUsername(token));
+        assertThrows(JwtException.class, () -> jwtService.extractUsername(tampered));
+    }
+
+    @Test
+    @DisplayName("Просроченный токен отклоняется")
+    void shouldRejectExpiredToken() {
+        // Arrange
+        String token = jwtService(-1000L).generateToken(user);
+
+        // Act & Assert
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractUsername(token));
+    }
+
+    private static JwtService jwtService(long expiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", "H++QPACG3PMKlsKILieJCXpW0DrJUMpiPTcU/KosFYU=");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+        service.setTokenVersionHandler(new DefaultTokenVersionHandler(mock(UserRepository.class)));
+        service.init();
+        return service;
+    }
+}
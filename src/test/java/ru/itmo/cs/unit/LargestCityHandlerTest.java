@@ -0,0 +1,147 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itmo.cs.entity.City;
+import ru.itmo.cs.entity.Coordinates;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.repository.CityLocationView;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.util.aggregate.CityLocation;
+import ru.itmo.cs.util.aggregate.DefaultLargestCityHandler;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LargestCityHandlerTest {
+
+    @InjectMocks
+    private DefaultLargestCityHandler largestCityHandler;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Test
+    @DisplayName("Удаление самого большого города открывает следующий по площади")
+    void shouldFallBackToNextCityWhenLargestIsRemoved() {
+        // Arrange
+        Coordinates shared = coordinates(1L, 10L, 20.0);
+        largestCityHandler.cityChanged(city(1L, 500.0, shared));
+        largestCityHandler.cityChanged(city(2L, 900.0, coordinates(2L, 30L, 40.0)));
+        largestCityHandler.cityChanged(city(3L, 700.0, shared));
+
+        // Act
+        largestCityHandler.cityRemoved(2L);
+
+        // Assert
+        assertEquals(Optional.of(new CityLocation(3L, 700.0, 10L, 20.0)), largestCityHandler.findLargest());
+    }
+
+    @Test
+    @DisplayName("Изменение площади и общих координат отражается в результате")
+    void shouldTrackAreaAndCoordinatesChanges() {
+        // Arrange
+        Coordinates shared = coordinates(1L, 10L, 20.0);
+        largestCityHandler.cityChanged(city(1L, 500.0, shared));
+        largestCityHandler.cityChanged(city(2L, 900.0, coordinates(2L, 30L, 40.0)));
+
+        // Act
+        largestCityHandler.cityChanged(city(2L, 100.0, coordinates(2L, 30L, 40.0)));
+        largestCityHandler.coordinatesChanged(coordinates(1L, 11L, 22.0));
+
+        // Assert
+        assertEquals(Optional.of(new CityLocation(1L, 500.0, 11L, 22.0)), largestCityHandler.findLargest());
+    }
+
+    @Test
+    @DisplayName("Без городов результат пуст")
+    void shouldReturnEmptyWithoutCities() {
+        // Arrange
+        largestCityHandler.cityChanged(city(1L, 500.0, coordinates(1L, 10L, 20.0)));
+
+        // Act
+        largestCityHandler.cityRemoved(1L);
+
+        // Assert
+        assertTrue(largestCityHandler.findLargest().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Периодическая пересборка подхватывает изменения других узлов")
+    void shouldPickUpForeignWritesOnRebuild() {
+        // Arrange
+        largestCityHandler.cityChanged(city(2L, 900.0, coordinates(2L, 30L, 40.0)));
+        // город 2 удален, а город 3 создан в обход этого узла
+        when(cityRepository.streamLocations()).thenReturn(Stream.of(
+                new Location(1L, 500.0, 1L, 10L, 20.0),
+                new Location(3L, 600.0, 3L, 50L, 60.0)));
+
+        // Act
+        largestCityHandler.rebuild();
+
+        // Assert
+        assertEquals(Optional.of(new CityLocation(3L, 600.0, 50L, 60.0)), largestCityHandler.findLargest());
+    }
+
+    private City city(Long id, double area, Coordinates coordinates) {
+        City city = new City();
+        city.setId(id);
+        city.setArea(area);
+        city.setCoordinates(coordinates);
+        return city;
+    }
+
+    private Coordinates coordinates(Long id, Long x, Double y) {
+        Coordinates coordinates = new Coordinates();
+        coordinates.setId(id);
+        coordinates.setX(x);
+        coordinates.setY(y);
+        return coordinates;
+    }
+
+    private record Location(Long id, double area, Long coordinatesId, long x, double y) implements CityLocationView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public double getArea() {
+            return area;
+        }
+
+        @Override
+        public Climate getClimate() {
+            return null;
+        }
+
+        @Override
+        public Government getGovernment() {
+            return null;
+        }
+
+        @Override
+        public Long getCoordinatesId() {
+            return coordinatesId;
+        }
+
+        @Override
+        public long getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itmo.cs.dto.PasswordHashingStatsDTO;
+import ru.itmo.cs.exception.TooManyRequestsException;
+import ru.itmo.cs.util.hashing.DefaultPasswordHashingHandler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingHandlerTest {
+
+    private final DefaultPasswordHashingHandler hashingHandler = new DefaultPasswordHashingHandler(1, 1, 2, 5000);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        hashingHandler.stop();
+    }
+
+    @Test
+    @DisplayName("Хеширование выполняется в отдельном пуле и учитывается в статистике")
+    void shouldRunHashingOnPool() {
+        // Act
+        String thread = hashingHandler.run(() -> Thread.currentThread().getName());
+
+        // Assert
+        assertTrue(thread.startsWith("password-hashing-"));
+        assertEquals(1, hashingHandler.getStats().getCompleted());
+    }
+
+    @Test
+    @DisplayName("Запрос сверх заполненной очереди сразу отклоняется")
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Boolean> running = callers.submit(() -> hashingHandler.run(() -> {
+            started.countDown();
+            await(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> hashingHandler.run(() -> true));
+        waitForQueued(1);
+
+        // Act
+        TooManyRequestsException rejection = assertThrows(TooManyRequestsException.class,
+                () -> hashingHandler.run(() -> true));
+        PasswordHashingStatsDTO stats = hashingHandler.getStats();
+        release.countDown();
+
+        // Assert
+        assertEquals(2, rejection.getRetryAfterSeconds());
+        assertEquals(1, stats.getQueued());
+        assertEquals(1, stats.getRejected());
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Ожидание хеширования ограничено по времени")
+    void shouldRejectWhenHashingTakesTooLong() {
+        // Arrange
+        DefaultPasswordHashingHandler slowHandler = new DefaultPasswordHashingHandler(1, 1, 2, 50);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        TooManyRequestsException rejection;
+        try {
+            rejection = assertThrows(TooManyRequestsException.class, () -> slowHandler.run(() -> {
+                await(release);
+                return true;
+            }));
+        } finally {
+            release.countDown();
+            slowHandler.stop();
+        }
+
+        // Assert
+        assertEquals(2, rejection.getRetryAfterSeconds());
+        assertEquals(1, slowHandler.getStats().getRejected());
+    }
+
+    @Test
+    @DisplayName("Запрос, не дождавшийся хеширования, освобождает место в очереди")
+    void shouldFreeQueueSlotOnTimeout() throws Exception {
+        // Arrange
+        DefaultPasswordHashingHandler slowHandler = new DefaultPasswordHashingHandler(1, 1, 2, 200);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> slowHandler.run(() -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+            return true;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        int queued;
+        try {
+            assertThrows(TooManyRequestsException.class, () -> slowHandler.run(() -> true));
+            queued = slowHandler.getStats().getQueued();
+        } finally {
+            release.countDown();
+            slowHandler.stop();
+        }
+
+        // Assert
+        assertEquals(0, queued);
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hashingHandler.getStats().getQueued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        // like BCrypt, the task does not stop when its caller gives up
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itmo.cs.entity.enums.Climate;
+import ru.itmo.cs.entity.enums.Government;
+import ru.itmo.cs.repository.CityLocationView;
+import ru.itmo.cs.repository.CityRepository;
+import ru.itmo.cs.service.CalculateDistanceService;
+import ru.itmo.cs.util.spatial.DefaultSpatialIndexHandler;
+import ru.itmo.cs.util.spatial.SpatialMatch;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SpatialIndexHandlerTest {
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Test
+    @DisplayName("Пересборка убирает города, удаленные в обход этого узла, и добавляет новые")
+    void shouldPickUpForeignWritesOnRebuild() {
+        // Arrange
+        DefaultSpatialIndexHandler spatialIndexHandler = handler();
+        spatialIndexHandler.cityChanged(new Location(1L, 1L, 10L, 10.0));
+        when(cityRepository.streamLocations()).thenReturn(Stream.of(new Location(2L, 2L, 20L, 20.0)));
+
+        // Act
+        spatialIndexHandler.rebuild();
+
+        // Assert
+        assertEquals(List.of(2L), cityIds(spatialIndexHandler.findNearest(10, 10, 0, 5, null, null)));
+    }
+
+    @Test
+    @DisplayName("Изменение, пришедшее во время пересборки, не теряется")
+    void shouldKeepChangesMadeDuringRebuild() {
+        // Arrange
+        DefaultSpatialIndexHandler spatialIndexHandler = handler();
+        when(cityRepository.streamLocations()).thenReturn(Stream.<CityLocationView>of(new Location(1L, 1L, 10L, 10.0))
+                .peek(row -> spatialIndexHandler.cityChanged(new Location(3L, 3L, 30L, 30.0))));
+
+        // Act
+        spatialIndexHandler.rebuild();
+
+        // Assert
+        assertEquals(List.of(1L, 3L), cityIds(spatialIndexHandler.findNearest(10, 10, 0, 5, null, null)));
+    }
+
+    private DefaultSpatialIndexHandler handler() {
+        return new DefaultSpatialIndexHandler(cityRepository, new CalculateDistanceService(), 8);
+    }
+
+    private static List<Long> cityIds(List<SpatialMatch> matches) {
+        return matches.stream().map(SpatialMatch::cityId).toList();
+    }
+
+    private record Location(Long id, Long coordinatesId, long x, double y) implements CityLocationView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public double getArea() {
+            return 1.0;
+        }
+
+        @Override
+        public Climate getClimate() {
+            return null;
+        }
+
+        @Override
+        public Government getGovernment() {
+            return null;
+        }
+
+        @Override
+        public Long getCoordinatesId() {
+            return coordinatesId;
+        }
+
+        @Override
+        public long getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+    }
+}
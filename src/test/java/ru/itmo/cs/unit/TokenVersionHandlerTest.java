@@ -0,0 +1,64 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.enums.UserRole;
+import ru.itmo.cs.repository.UserRepository;
+import ru.itmo.cs.util.cache.DefaultTokenVersionHandler;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionHandlerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private DefaultTokenVersionHandler tokenVersionHandler;
+
+    @Test
+    @DisplayName("Версия токена не зависит от запуска JVM")
+    void shouldComputeStableVersion() {
+        // Arrange
+        User user = user(UserRole.USER);
+
+        // Act
+        int version = tokenVersionHandler.versionOf(user);
+
+        // Assert
+        // первые четыре байта SHA-256 от "testUser|encodedPassword|USER"
+        assertEquals(-971766956, version);
+    }
+
+    @Test
+    @DisplayName("Смена роли делает выданные токены недействительными")
+    void shouldRejectVersionAfterRoleChange() {
+        // Arrange
+        int issued = tokenVersionHandler.versionOf(user(UserRole.USER));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(UserRole.ADMIN)));
+
+        // Act
+        boolean current = tokenVersionHandler.isCurrent(1L, issued);
+
+        // Assert
+        assertFalse(current);
+    }
+
+    private static User user(UserRole role) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testUser");
+        user.setPassword("encodedPassword");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itmo.cs.util.search.TrigramIndex;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.add(1L, "Saint Petersburg");
+        index.add(2L, "Petrozavodsk");
+        index.add(3L, "Moscow");
+    }
+
+    @Test
+    @DisplayName("Поиск по подстроке возвращает только точные совпадения")
+    void shouldFindIdsBySubstring() {
+        // Act
+        Optional<Set<Long>> result = index.search("Peters");
+
+        // Assert
+        assertEquals(Optional.of(Set.of(1L)), result);
+    }
+
+    @Test
+    @DisplayName("Совпадение всех триграмм без вхождения подстроки отбрасывается")
+    void shouldRejectCandidatesWithoutSubstring() {
+        // Arrange
+        index.add(4L, "abcXbcd");
+
+        // Act
+        Optional<Set<Long>> result = index.search("abcd");
+
+        // Assert
+        assertEquals(Optional.of(Set.of()), result);
+    }
+
+    @Test
+    @DisplayName("Короткий запрос не сужается индексом")
+    void shouldSkipQueriesShorterThanTrigram() {
+        // Act
+        Optional<Set<Long>> result = index.search("Mo");
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Переименование заменяет старое название новым")
+    void shouldReplaceTextOnRetain() {
+        // Act
+        index.add(3L, "Moskva");
+        Optional<Set<Long>> staged = index.search("Moskva");
+        index.retain(3L, Set.of("Moskva"));
+
+        // Assert
+        assertEquals(Optional.of(Set.of(3L)), staged);
+        assertEquals(Optional.of(Set.of()), index.search("Moscow"));
+        assertEquals(Optional.of(Set.of(3L)), index.search("Moskva"));
+    }
+
+    @Test
+    @DisplayName("Удаленная запись не находится")
+    void shouldForgetRemovedId() {
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertEquals(Optional.of(Set.of()), index.search("Saint"));
+        assertEquals(2, index.size());
+    }
+}
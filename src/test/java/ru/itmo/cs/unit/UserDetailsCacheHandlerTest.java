@@ -0,0 +1,75 @@
+package ru.itmo.cs.unit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.itmo.cs.entity.User;
+import ru.itmo.cs.entity.enums.UserRole;
+import ru.itmo.cs.util.cache.DefaultUserDetailsCacheHandler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheHandlerTest {
+
+    private final DefaultUserDetailsCacheHandler cacheHandler = new DefaultUserDetailsCacheHandler(100, 60000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Повторное обращение к пользователю не идет в базу")
+    void shouldLoadUserOnce() {
+        // Act
+        UserDetails first = cacheHandler.getUser("testUser", loader(UserRole.USER));
+        UserDetails second = cacheHandler.getUser("testUser", loader(UserRole.USER));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals("testUser", second.getUsername());
+        assertEquals(1, cacheHandler.getStats().getHits());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    @DisplayName("После смены роли пользователь читается заново")
+    void shouldReloadUserAfterEviction() {
+        // Arrange
+        cacheHandler.getUser("testUser", loader(UserRole.USER));
+
+        // Act
+        cacheHandler.evictUser("testUser");
+        UserDetails reloaded = cacheHandler.getUser("testUser", loader(UserRole.ADMIN));
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals("ROLE_ADMIN", reloaded.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    @DisplayName("Стирание пароля у выданного пользователя не затрагивает кэш")
+    void shouldKeepPasswordAfterCredentialsErased() {
+        // Arrange
+        UserDetails first = cacheHandler.getUser("testUser", loader(UserRole.USER));
+
+        // Act
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = cacheHandler.getUser("testUser", loader(UserRole.USER));
+
+        // Assert
+        assertNull(first.getPassword());
+        assertEquals("encodedPassword", second.getPassword());
+    }
+
+    private Function<String, UserDetails> loader(UserRole role) {
+        return username -> {
+            loads.incrementAndGet();
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("encodedPassword");
+            user.setRole(role);
+            return user;
+        };
+    }
+}
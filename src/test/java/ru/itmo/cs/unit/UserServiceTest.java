@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -12,9 +13,11 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.itmo.cs.adminStatus.AdminRequestStatusHandler;
 import ru.itmo.cs.dto.auth.UserLoginDTO;
 import ru.itmo.cs.dto.auth.UserRegistrationDTO;
+import ru.itmo.cs.dto.auth.UserUpdateDTO;
 import ru.itmo.cs.entity.User;
 import ru.itmo.cs.entity.enums.AdminRequestStatus;
 import ru.itmo.cs.entity.enums.UserRole;
@@ -56,6 +59,9 @@ class UserServiceTest {
     @Mock
     private Map<String, AdminRequestStatusHandler> statusHandlers;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     private User testUser;
     private UserRegistrationDTO registrationDTO;
     private UserLoginDTO loginDTO;
@@ -116,6 +122,24 @@ class UserServiceTest {
         verifyNoInteractions(passwordEncoder, jwtService);
     }
 
+    @Test
+    @DisplayName("Новый пароль хешируется до открытия транзакции")
+    void shouldHashPasswordBeforeTransaction() {
+        // Arrange
+        UserUpdateDTO updateDTO = new UserUpdateDTO();
+        updateDTO.setPassword("newPassword");
+        when(passwordEncoder.encode("newPassword")).thenReturn("encodedNewPassword");
+
+        // Act
+        userService.updateCurrentUser(updateDTO);
+
+        // Assert
+        InOrder order = inOrder(passwordEncoder, transactionTemplate);
+        order.verify(passwordEncoder).encode("newPassword");
+        order.verify(transactionTemplate).execute(any());
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     @DisplayName("Успешный логин пользователя")
     void shouldLoginUserSuccessfully() {